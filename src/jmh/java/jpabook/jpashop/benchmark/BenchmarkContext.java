@@ -0,0 +1,56 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.seed.SeedProperties;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트
+ * 임베디드 H2(메모리)를 사용하고, InitDB 샘플 데이터와 SQL 로그는 끈다.
+ * 조회 결과 캐시(@Cacheable)도 끈다. 켜져 있으면 두 번째 호출부터 캐시만 측정하게 된다.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        // application.yml 보다 우선하도록 커맨드라인 인자로 넘긴다.
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.cache.type=none",
+                "--jpashop.init-db.enabled=false",
+                "--jpashop.query-count.enabled=false",
+                "--jpashop.sql-stats.enabled=false",
+                "--jpashop.sql-audit.enabled=false",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--logging.level.org.hibernate.type=warn"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+
+        return new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0]));
+    }
+
+    // 주문 10개당 회원 1명
+    static SeedProperties seedProperties(int orders) {
+        SeedProperties props = new SeedProperties();
+        props.setOrders(orders);
+        props.setMembers(Math.max(1, orders / 10));
+        props.setItems(Math.max(100, orders / 100));
+        return props;
+    }
+}
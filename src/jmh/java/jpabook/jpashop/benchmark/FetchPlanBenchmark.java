@@ -0,0 +1,99 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.repository.OrderFetchPlan;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.seed.BulkDataSeeder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 조회 계획(엔티티 그래프)별 처리량과 SQL 실행 수 비교
+ * 매 호출마다 주문 limit 건을 조회하고 OrderDto 로 바꿀 때 건드리는 연관관계까지 모두 초기화한다.
+ * 반복(iteration)이 끝날 때마다 호출 1번당 실행한 SQL 수를 출력한다.
+ *
+ * ./gradlew jmh -PjmhArgs="FetchPlanBenchmark -p batchFetchSize=1,1000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FetchPlanBenchmark {
+
+    @Param({"NONE", "MEMBER", "MEMBER_DELIVERY", "ALL"})
+    public OrderFetchPlan plan;
+
+    @Param({"1000"})
+    public int batchFetchSize;
+
+    @Param({"100"})
+    public int limit;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTx;
+    private OrderRepository orderRepository;
+    private Statistics statistics;
+    private long invocations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.default_batch_fetch_size=" + batchFetchSize,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false");
+        context.getBean(BulkDataSeeder.class).seed(BenchmarkContext.seedProperties(10000));
+
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        orderRepository = context.getBean(OrderRepository.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        statistics.clear();
+        invocations = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStatements() {
+        if (invocations > 0) {
+            System.out.printf("%n[%s] statements/op = %.2f%n",
+                    plan, (double) statistics.getPrepareStatementCount() / invocations);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Order> findAll() {
+        invocations++;
+        return readOnlyTx.execute(status -> {
+            List<Order> result = orderRepository.findAll(new OrderSearch(), plan, 0, limit);
+            result.forEach(FetchPlanBenchmark::initializeAll);
+            return result;
+        });
+    }
+
+    private static void initializeAll(Order order) {
+        order.getMember().getName();
+        order.getDelivery().getAddress();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            orderItem.getItem().getName();
+        }
+    }
+}
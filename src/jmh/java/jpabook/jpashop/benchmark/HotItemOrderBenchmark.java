@@ -0,0 +1,93 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.seed.BulkDataSeeder;
+import jpabook.jpashop.seed.SeedProperties;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.OrderPlacementService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 상품 하나(SKU 1개)에 주문이 몰릴 때의 초당 주문 수
+ * 재고 차감 방식(stockMode)마다 같은 상품을 여러 스레드가 동시에 주문한다.
+ * 처리량은 시도 수, success/conflict 는 초당 성공한 주문과 버전 충돌(재시도 초과 포함)로 끝난 주문이다.
+ *
+ * ./gradlew jmh -PjmhArgs="HotItemOrderBenchmark"
+ * ./gradlew jmh -PjmhArgs="HotItemOrderBenchmark -p stockMode=ENTITY -p intake=true"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class HotItemOrderBenchmark {
+
+    @Param({"ENTITY", "CONDITIONAL_UPDATE", "OPTIMISTIC"})
+    public String stockMode;
+
+    // true 면 주문 접수 대기열(group commit)을 거친다.
+    @Param({"false"})
+    public boolean intake;
+
+    private ConfigurableApplicationContext context;
+    private OrderPlacementService orderPlacementService;
+    private SeedProperties seed;
+    private Long hotItemId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "jpashop.order.stock-mode=" + stockMode,
+                "jpashop.order.intake.enabled=" + intake);
+        seed = BenchmarkContext.seedProperties(10_000);
+        context.getBean(BulkDataSeeder.class).seed(seed);
+
+        Book book = new Book();
+        book.setName("hot item");
+        book.setPrice(10000);
+        book.setStockQuantity(Integer.MAX_VALUE); // 측정 중에 재고가 떨어지지 않게
+        context.getBean(ItemService.class).saveItem(book);
+        hotItemId = book.getId();
+
+        orderPlacementService = context.getBean(OrderPlacementService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcome {
+        public long success;
+        public long conflict;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            success = 0;
+            conflict = 0;
+        }
+    }
+
+    // 주문 1건 = 트랜잭션 1개 (POST /order), 회원은 무작위
+    @Benchmark
+    public Long orderHotItem(Outcome outcome) {
+        long memberId = 1 + ThreadLocalRandom.current().nextInt(seed.getMembers());
+        try {
+            Long orderId = orderPlacementService.order(memberId, hotItemId, 1);
+            outcome.success++;
+            return orderId;
+        } catch (OptimisticLockingFailureException e) {
+            outcome.conflict++;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.seed.BulkDataSeeder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 DTO 조립 비교: v5(쿼리 2번 + groupingBy) vs v6(평평한 조인 1번 + 한 번 훑기)
+ * 한 번 호출에 ORDERS 건을 조립하므로 결과는 주문 1건 기준이다. -prof gc 의 gc.alloc.rate.norm 이 주문당 할당량이다.
+ *
+ * ./gradlew jmh -PjmhArgs="OrderAssemblyBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OperationsPerInvocation(OrderAssemblyBenchmark.ORDERS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class OrderAssemblyBenchmark {
+
+    static final int ORDERS = 10000;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTx;
+    private OrderQueryRepository orderQueryRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.getBean(BulkDataSeeder.class).seed(BenchmarkContext.seedProperties(ORDERS));
+
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> v5_findAllByDto_optimization() {
+        return readOnlyTx.execute(status -> orderQueryRepository.findAllByDto_optimization());
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> v6_findAllByDto_flat() {
+        return readOnlyTx.execute(status -> orderQueryRepository.findAllByDto_flat());
+    }
+}
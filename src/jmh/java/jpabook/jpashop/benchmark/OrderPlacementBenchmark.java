@@ -0,0 +1,86 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.seed.BulkDataSeeder;
+import jpabook.jpashop.seed.SeedProperties;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 등록 처리량
+ * 시퀀스 pooled-lo 최적화로 persist 마다 시퀀스를 조회하지 않고,
+ * 한 트랜잭션에서 여러 주문을 등록하면 같은 테이블의 insert 가 JDBC batch 로 묶인다.
+ *
+ * ./gradlew jmh -PjmhArgs="OrderPlacementBenchmark -p jdbcBatchSize=0,100"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class OrderPlacementBenchmark {
+
+    private static final int ORDERS_PER_TRANSACTION = 100;
+
+    // 0 이면 JDBC batch 를 사용하지 않는다.
+    @Param({"0", "100"})
+    public int jdbcBatchSize;
+
+    @Param({"true"})
+    public boolean orderInserts;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate tx;
+    private OrderService orderService;
+    private SeedProperties seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize,
+                "spring.jpa.properties.hibernate.order_inserts=" + orderInserts);
+        seed = BenchmarkContext.seedProperties(10_000);
+        context.getBean(BulkDataSeeder.class).seed(seed);
+
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // 주문 1건 = 트랜잭션 1개 (POST /order)
+    @Benchmark
+    public Long placeOrder() {
+        return orderRandomly();
+    }
+
+    // 한 트랜잭션에서 여러 주문 등록
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_TRANSACTION)
+    public Long placeOrders_inOneTransaction() {
+        return tx.execute(status -> {
+            Long last = null;
+            for (int i = 0; i < ORDERS_PER_TRANSACTION; i++) {
+                last = orderRandomly();
+            }
+            return last;
+        });
+    }
+
+    private Long orderRandomly() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long memberId = 1 + random.nextInt(seed.getMembers());
+        long itemId = 1 + random.nextInt(seed.getItems());
+        return orderService.order(memberId, itemId, 1);
+    }
+}
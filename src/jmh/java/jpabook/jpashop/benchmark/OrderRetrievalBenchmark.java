@@ -0,0 +1,138 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.seed.BulkDataSeeder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 조회 전략별 처리량/지연시간/할당량 비교
+ * 매 호출마다 새 트랜잭션(새 영속성 컨텍스트)에서 조회하고, API 에서 DTO 로 바꿀 때 건드리는 연관관계까지 초기화한다.
+ *
+ * ./gradlew jmh -PjmhArgs="OrderRetrievalBenchmark -p orders=10000,100000,1000000"
+ * batchFetchSize=1 로 주면 default_batch_fetch_size 없이(엔티티의 @BatchSize 만으로) 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class OrderRetrievalBenchmark {
+
+    @Param({"10000"})
+    public int orders;
+
+    @Param({"1000"})
+    public int batchFetchSize;
+
+    @Param({"0"})
+    public int offset;
+
+    @Param({"100"})
+    public int limit;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTx;
+    private OrderRepository orderRepository;
+    private OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private OrderQueryRepository orderQueryRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.jpa.properties.hibernate.default_batch_fetch_size=" + batchFetchSize);
+        context.getBean(BulkDataSeeder.class).seed(BenchmarkContext.seedProperties(orders));
+
+        readOnlyTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        orderRepository = context.getBean(OrderRepository.class);
+        orderSimpleQueryRepository = context.getBean(OrderSimpleQueryRepository.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // v2: 엔티티 조회 후 지연 로딩 (findAllByString 은 최대 1000건)
+    @Benchmark
+    public List<Order> findAllByString_lazyLoading() {
+        return readOnlyTx.execute(status -> {
+            List<Order> result = orderRepository.findAllByString(new OrderSearch());
+            result.forEach(OrderRetrievalBenchmark::initializeAll);
+            return result;
+        });
+    }
+
+    // simple v3: ToOne 페치 조인
+    @Benchmark
+    public List<Order> findAllWithMemberDelivery() {
+        return readOnlyTx.execute(status -> {
+            List<Order> result = orderRepository.findAllWithMemberDelivery();
+            result.forEach(o -> {
+                o.getMember().getName();
+                o.getDelivery().getAddress();
+            });
+            return result;
+        });
+    }
+
+    // v3: 컬렉션 페치 조인 (메모리에서 페이징)
+    @Benchmark
+    public List<Order> findAllWithThem() {
+        return readOnlyTx.execute(status -> {
+            List<Order> result = orderRepository.findAllWithThem();
+            result.forEach(OrderRetrievalBenchmark::initializeAll);
+            return result;
+        });
+    }
+
+    // v3.1: ToOne 페치 조인 + 페이징, 컬렉션은 batch fetch
+    @Benchmark
+    public List<Order> findAllWithMemberDelivery_paged() {
+        return readOnlyTx.execute(status -> {
+            List<Order> result = orderRepository.findAllWithMemberDelivery(offset, limit);
+            result.forEach(OrderRetrievalBenchmark::initializeAll);
+            return result;
+        });
+    }
+
+    // simple v4: DTO 직접 조회
+    @Benchmark
+    public Object findOrderDtos() {
+        return readOnlyTx.execute(status -> orderSimpleQueryRepository.findOrderDtos());
+    }
+
+    // v4: DTO 직접 조회, 컬렉션 N+1
+    @Benchmark
+    public Object findOrderQueryDtos() {
+        return readOnlyTx.execute(status -> orderQueryRepository.findOrderQueryDtos());
+    }
+
+    // v5: DTO 직접 조회, 컬렉션 in 쿼리 1번
+    @Benchmark
+    public Object findAllByDto_optimization() {
+        return readOnlyTx.execute(status -> orderQueryRepository.findAllByDto_optimization());
+    }
+
+    // OrderDto 로 변환할 때 건드리는 연관관계 초기화
+    private static void initializeAll(Order order) {
+        order.getMember().getName();
+        order.getDelivery().getAddress();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            orderItem.getItem().getName();
+        }
+    }
+}
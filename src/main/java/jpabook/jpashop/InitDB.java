@@ -2,7 +2,12 @@ package jpabook.jpashop;
 
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.seed.BulkDataSeeder;
+import jpabook.jpashop.seed.SeedProperties;
+import jpabook.jpashop.service.OrderSummaryService;
+import jpabook.jpashop.service.SalesService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
@@ -17,20 +22,34 @@ import javax.transaction.Transactional;
  * userB
  *  SPRING1 BOOK
  *  SPRING2 BOOK
+ *
+ * jpashop.seed.enabled=true 이면 샘플 대신 설정한 규모의 대량 데이터를 넣는다.
  */
 
 @Component
+@ConditionalOnProperty(prefix = "jpashop.init-db", name = "enabled", havingValue = "true", matchIfMissing = true)
 @RequiredArgsConstructor
 public class InitDB {
 
     private final InitService initService;
+    private final SeedProperties seedProperties;
+    private final BulkDataSeeder bulkDataSeeder;
+    private final OrderSummaryService orderSummaryService;
+    private final SalesService salesService;
 
     @PostConstruct
     public void init() {
-        // 스프링 빈이 모두 올라온 후 호출된다.
-        // 함수 내용을 그대로 넣는거 불가능
-        initService.dbInit1();
-        initService.dbInit2();
+        if (seedProperties.isEnabled()) {
+            bulkDataSeeder.seed(seedProperties);
+        } else {
+            // 스프링 빈이 모두 올라온 후 호출된다.
+            // 함수 내용을 그대로 넣는거 불가능
+            initService.dbInit1();
+            initService.dbInit2();
+        }
+        // OrderService 를 거치지 않고 넣었기 때문에 주문 요약, 일별 매출 테이블을 다시 만든다.
+        orderSummaryService.rebuild();
+        salesService.rebuildDailySales();
     }
 
     @Component
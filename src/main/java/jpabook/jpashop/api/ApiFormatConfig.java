@@ -0,0 +1,71 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import lombok.RequiredArgsConstructor;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+/**
+ * API 응답 형식
+ * Accept 헤더로 JSON(기본), Smile(application/x-jackson-smile), CBOR(application/cbor) 중에서 고른다.
+ * 모두 같은 Jackson 설정(모듈, 날짜 형식)을 사용한다.
+ * 압축(gzip)은 server.compression 설정으로 Tomcat 이 한다.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ApiFormatConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder; // prototype
+    private final ApiFormatProperties properties;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        SmileFactory smileFactory = new SmileFactory();
+        smileFactory.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, properties.isSmileSharedStrings());
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(smileFactory).build()));
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+    }
+
+    // 같은 URL 이 Accept 에 따라 다른 형식으로 응답하기 때문에 캐시가 구분하도록 알려준다.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+
+    // Tomcat 은 기본적으로 강한 ETag 가 있는 응답을 압축하지 않는다.
+    // 주문 목록 ETag 는 형식/압축 여부별로 다르게 만들기 때문에(DataVersion.etag) 압축해도 된다.
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> compressStrongETagResponses() {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            if (connector.getProtocolHandler() instanceof AbstractHttp11Protocol) {
+                ((AbstractHttp11Protocol<?>) connector.getProtocolHandler()).setNoCompressionStrongETag(false);
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package jpabook.jpashop.api;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "jpashop.api.format")
+public class ApiFormatProperties {
+
+    // Smile 응답에서 반복되는 짧은 문자열 값(주소, 상품 이름 등)을 처음 한 번만 쓰고 이후에는 참조로 보낸다.
+    private boolean smileSharedStrings = true;
+}
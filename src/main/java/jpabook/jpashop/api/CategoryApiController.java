@@ -0,0 +1,41 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.category.CategoryItemQueryDto;
+import jpabook.jpashop.repository.category.CategoryQueryDto;
+import jpabook.jpashop.repository.category.CategoryQueryRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class CategoryApiController {
+
+    private final CategoryQueryRepository categoryQueryRepository;
+
+    @GetMapping("/api/categories/{id}/subtree")
+    public CategoryQueryDto subtree(@PathVariable("id") Long id) {
+        return categoryQueryRepository.findSubtree(id);
+    }
+
+    @GetMapping("/api/categories/{id}/items")
+    public ItemPage items(@PathVariable("id") Long id,
+                          @RequestParam(value = "offset", defaultValue = "0") int offset,
+                          @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return new ItemPage(categoryQueryRepository.countItems(id),
+                categoryQueryRepository.findItems(id, offset, limit));
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class ItemPage {
+        private long totalCount;
+        private List<CategoryItemQueryDto> items;
+    }
+}
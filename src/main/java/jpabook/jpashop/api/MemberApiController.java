@@ -1,6 +1,8 @@
 package jpabook.jpashop.api;
 
+import jpabook.jpashop.controller.Paging;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.member.query.MemberQueryRepository;
 import jpabook.jpashop.service.MemberService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -18,6 +20,7 @@ import java.util.stream.Collectors;
 public class MemberApiController {
 
     private final MemberService memberService;
+    private final MemberQueryRepository memberQueryRepository;
 
     @GetMapping("/api/v1/members")
     public List<Member> membersV1() {
@@ -29,9 +32,12 @@ public class MemberApiController {
     }
     // dto를 만드는 것은 필수!
     @GetMapping("/api/v2/members")
-    public Result membersV2() {
-        List<Member> findMembers = memberService.findMembers();
-        List<MemberDto> collect = findMembers.stream()
+    public Result membersV2(@RequestParam(value = "offset", defaultValue = "0") int offset,
+                            @RequestParam(value = "limit", defaultValue = "100") int limit,
+                            @RequestParam(value = "sort", required = false) String sort) {
+        Paging.validate(offset, limit);
+        // 이름만 내려주기 때문에 엔티티 전체가 아니라 필요한 컬럼만 조회한다.
+        List<MemberDto> collect = memberQueryRepository.findMemberNames(offset, limit, sort).stream()
                 .map(m -> new MemberDto(m.getName()))
                 .collect(Collectors.toList());
 
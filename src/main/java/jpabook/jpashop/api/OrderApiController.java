@@ -1,20 +1,34 @@
 package jpabook.jpashop.api;
 
+import jpabook.jpashop.controller.Paging;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.event.DataVersion;
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.OrderFetchPlan;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.OrderExportService;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -23,8 +37,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderApiController {
 
+    private static final int MAX_CURSOR_LIMIT = 1000;
+
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final OrderExportService orderExportService;
+    private final DataVersion dataVersion;
 
     @GetMapping("/api/v1/orders")
     public List<Order> ordersV1() {
@@ -51,7 +69,11 @@ public class OrderApiController {
     }
 
     @GetMapping("/api/v2/orders")
-    public List<OrderDto> ordersV2() {
+    public List<OrderDto> ordersV2(WebRequest webRequest) {
+        // 마지막으로 받은 이후 바뀐 데이터가 없으면 조회/직렬화 없이 304
+        if (webRequest.checkNotModified(dataVersion.etag(webRequest))) {
+            return null;
+        }
         List<Order> orders = orderRepository.findAllByString(new OrderSearch());
         List<OrderDto> result = orders.stream()
                 .map(OrderDto::new)
@@ -77,10 +99,12 @@ public class OrderApiController {
     }
 
     @GetMapping("/api/v3.1/orders")
-    public List<OrderDto> ordersV3_page(@RequestParam(value = "offset", defaultValue = "0") int offset,
+    public List<OrderDto> ordersV3_page(OrderSearch orderSearch,
+                                        @RequestParam(value = "offset", defaultValue = "0") int offset,
                                         @RequestParam(value = "limit", defaultValue = "100") int limit) {
-        // ToOne 관계는 페치 조인으로 가져온다.
-        List<Order> orders = orderRepository.findAllWithMemberDelivery(offset, limit);
+        Paging.validate(offset, limit);
+        // ToOne 관계는 엔티티 그래프로 같이 가져오고, 컬렉션은 batch fetch 로 가져온다.
+        List<Order> orders = orderRepository.findAll(orderSearch, OrderFetchPlan.MEMBER_DELIVERY, offset, limit);
 
         List<OrderDto> result = orders.stream()
                 .map(OrderDto::new)
@@ -89,16 +113,81 @@ public class OrderApiController {
         return result;
     }
 
+    @GetMapping("/api/v3.2/orders")
+    public CursorResult<List<OrderDto>> ordersV3_cursor(@RequestParam(value = "cursor", required = false) String cursor,
+                                                        @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_CURSOR_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit 은 1 ~ " + MAX_CURSOR_LIMIT + " 사이여야 합니다.");
+        }
+        // offset 대신 마지막으로 읽은 위치(커서)부터 조회한다. 몇 페이지를 넘기든 조회 비용이 같다.
+        OrderCursor orderCursor = StringUtils.hasText(cursor) ? decodeCursor(cursor) : null;
+        // 다음 페이지 존재 여부를 알기 위해 1개 더 조회한다.
+        List<Order> orders = orderRepository.findAllWithMemberDelivery(orderCursor, limit + 1);
+
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = orders.subList(0, limit);
+            nextCursor = OrderCursor.of(orders.get(limit - 1)).encode();
+        }
+
+        List<OrderDto> result = orders.stream()
+                .map(OrderDto::new)
+                .collect(Collectors.toList());
+
+        return new CursorResult<>(result, nextCursor);
+    }
+
+    // 클라이언트가 보낸 커서가 깨졌으면 400
+    private static OrderCursor decodeCursor(String cursor) {
+        try {
+            return OrderCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     @GetMapping("/api/v4/orders")
     public List<OrderQueryDto> ordersV4() {
         return orderQueryRepository.findOrderQueryDtos();
     }
 
     @GetMapping("/api/v5/orders")
-    public List<OrderQueryDto> ordersV5() {
+    public List<OrderQueryDto> ordersV5(WebRequest webRequest) {
+        if (webRequest.checkNotModified(dataVersion.etag(webRequest))) {
+            return null;
+        }
         return orderQueryRepository.findAllByDto_optimization();
     }
 
+    @GetMapping("/api/v5.1/orders")
+    public List<OrderQueryDto> ordersV5_summary() {
+        // 주문 요약 테이블 + OrderItem in 쿼리 1번
+        return orderQueryRepository.findAllByDto_summary();
+    }
+
+    // V5 와 같은 쿼리지만 List 로 모으지 않고 chunk 단위로 읽으면서 바로 응답에 쓴다.
+    @GetMapping("/api/v5/orders/export")
+    public void exportOrdersV5(@RequestParam(value = "format", defaultValue = "json") String format,
+                               HttpServletResponse response) throws IOException {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        response.setContentType(ndjson ? "application/x-ndjson" : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        orderExportService.exportOrders(response.getOutputStream(), ndjson);
+    }
+
+    @GetMapping("/api/v6/orders")
+    public List<OrderQueryDto> ordersV6() {
+        // 쿼리 1번, 정렬된 row 를 한 번 훑으면서 조립
+        return orderQueryRepository.findAllByDto_flat();
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CursorResult<T> {
+        private T data;
+        private String nextCursor; // 마지막 페이지면 null
+    }
+
     @Data // 보통 그냥 쓰지만 해주는게 너무 많아서 안쓰는게 좋은 경우도 있다.
     static class OrderDto {
 
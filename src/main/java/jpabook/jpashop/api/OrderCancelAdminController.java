@@ -0,0 +1,50 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.BulkCancelResult;
+import jpabook.jpashop.service.OrderCancellationService;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class OrderCancelAdminController {
+
+    private final OrderCancellationService orderCancellationService;
+
+    /**
+     * 주문 일괄 취소
+     * {"orderIds": [1, 2, 3]} 또는 {"search": {"memberName": "...", "orderStatus": "ORDER"}}
+     * search 는 회원 이름이 필수이고 정확히 일치하는 회원의 주문만 취소한다. (orderStatus 만으로는 받지 않는다)
+     * 대상이 jpashop.order.max-bulk-cancel 개를 넘으면 하나도 취소하지 않고 400
+     */
+    @PostMapping("/api/admin/orders/cancel")
+    public BulkCancelResult cancelOrders(@RequestBody BulkCancelRequest request) {
+        try {
+            if (request.getOrderIds() != null && !request.getOrderIds().isEmpty()) {
+                return orderCancellationService.cancel(request.getOrderIds());
+            }
+            OrderSearch search = request.getSearch();
+            if (search == null || !StringUtils.hasText(search.getMemberName())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "orderIds 또는 search.memberName 이 필요합니다.");
+            }
+            return orderCancellationService.cancel(search);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    @Data
+    static class BulkCancelRequest {
+        private List<Long> orderIds;
+        private OrderSearch search;
+    }
+}
@@ -3,6 +3,7 @@ package jpabook.jpashop.api;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.event.DataVersion;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
@@ -11,6 +12,7 @@ import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -28,6 +30,7 @@ public class OrderSimpleApiController {
 
     private final OrderRepository orderRepository;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final DataVersion dataVersion;
 
     // API 스펙 변경의 문제뿐만아니라 성능상으로도 문제가 발생한다.
     // FORCE_LAZY_LOADING 때문에 필요하지 않은 데이터들도 모두 가져오기 때문에 불필요한 쿼리들이 발생한다.
@@ -78,7 +81,11 @@ public class OrderSimpleApiController {
     }
 
     @GetMapping("/api/v4/simple-orders")
-    public List<OrderSimpleQueryDto> orderV4() {
+    public List<OrderSimpleQueryDto> orderV4(WebRequest webRequest) {
+        // 마지막으로 받은 이후 바뀐 데이터가 없으면 조회/직렬화 없이 304
+        if (webRequest.checkNotModified(dataVersion.etag(webRequest))) {
+            return null;
+        }
         List<OrderSimpleQueryDto> orderDtos = orderSimpleQueryRepository.findOrderDtos();
         return orderDtos;
     }
@@ -89,6 +96,12 @@ public class OrderSimpleApiController {
     // 대부분의 리소스는 where 절에서 소모되기 때문에 대부분의 경우 성능차이가 미미하다. select 필드가 클 때 고려해야한다.
     // Repository -> Entity의 조회에 사용한다.
 
+    @GetMapping("/api/v5/simple-orders")
+    public List<OrderSimpleQueryDto> orderV5() {
+        // 주문/취소 시점에 갱신해둔 요약 테이블만 읽는다. 조인이 없다.
+        return orderSimpleQueryRepository.findOrderDtosFromSummary();
+    }
+
     @Data
     static class SimpleOrderDto {
         private Long orderId;
@@ -0,0 +1,27 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.service.OrderSummaryService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class OrderSummaryAdminController {
+
+    private final OrderSummaryService orderSummaryService;
+
+    // 주문 요약 테이블이 주문 테이블과 어긋났을 때 다시 만든다.
+    @PostMapping("/api/admin/order-summaries/rebuild")
+    public RebuildResponse rebuild() {
+        return new RebuildResponse(orderSummaryService.rebuild());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class RebuildResponse {
+        private int count;
+    }
+}
@@ -0,0 +1,55 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.sales.DailySalesDto;
+import jpabook.jpashop.repository.sales.ItemSalesDto;
+import jpabook.jpashop.repository.sales.MemberSalesDto;
+import jpabook.jpashop.service.SalesService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// 기간은 [from, to) 이다. ex) ?from=2024-01-01&to=2025-01-01
+@RestController
+@RequiredArgsConstructor
+public class SalesApiController {
+
+    private final SalesService salesService;
+
+    @GetMapping("/api/sales/members")
+    public List<MemberSalesDto> memberSales(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesService.findMemberSales(from, to);
+    }
+
+    @GetMapping("/api/sales/items")
+    public List<ItemSalesDto> itemSales(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesService.findItemSales(from, to);
+    }
+
+    // 일별 집계 테이블만 읽는다. 1년이면 최대 365 * DailySales.SLOTS row 를 날짜별로 합친다.
+    @GetMapping("/api/sales/daily")
+    public List<DailySalesDto> dailySales(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return salesService.findDailySales(from, to);
+    }
+
+    @PostMapping("/api/admin/daily-sales/rebuild")
+    public RebuildResponse rebuildDailySales() {
+        return new RebuildResponse(salesService.rebuildDailySales());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class RebuildResponse {
+        private int count;
+    }
+}
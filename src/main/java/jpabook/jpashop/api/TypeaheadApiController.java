@@ -0,0 +1,30 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.search.NameEntry;
+import jpabook.jpashop.search.TypeaheadIndexes;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+// DB 를 거치지 않고 메모리 인덱스에서 이름 접두사로 찾는다. (대소문자 무시)
+@RestController
+@RequiredArgsConstructor
+public class TypeaheadApiController {
+
+    private final TypeaheadIndexes typeaheadIndexes;
+
+    @GetMapping("/api/typeahead/members")
+    public List<NameEntry> members(@RequestParam("q") String prefix,
+                                   @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return typeaheadIndexes.searchMembers(prefix, limit);
+    }
+
+    @GetMapping("/api/typeahead/items")
+    public List<NameEntry> items(@RequestParam("q") String prefix,
+                                 @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return typeaheadIndexes.searchItems(prefix, limit);
+    }
+}
@@ -1,7 +1,8 @@
 package jpabook.jpashop.controller;
 
 import jpabook.jpashop.domain.item.Book;
-import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.item.query.ItemQueryDto;
+import jpabook.jpashop.repository.item.query.ItemQueryRepository;
 import jpabook.jpashop.service.ItemService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
@@ -10,6 +11,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 
@@ -18,6 +20,7 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemQueryRepository itemQueryRepository;
 
     @GetMapping("/items/new")
     public String createForm(Model model) {
@@ -40,9 +43,22 @@ public class ItemController {
     }
 
     @GetMapping("/items")
-    public String list(Model model) {
-        List<Item> items = itemService.findItems();
+    public String list(@RequestParam(value = "offset", defaultValue = "0") int offset,
+                       @RequestParam(value = "limit", defaultValue = "20") int limit,
+                       @RequestParam(value = "sort", required = false) String sort,
+                       Model model) {
+        Paging.validate(offset, limit);
+        // 다음 페이지 존재 여부를 알기 위해 1개 더 조회한다. (전체 count 쿼리 없음)
+        List<ItemQueryDto> items = itemQueryRepository.findItems(offset, limit + 1, sort);
+        boolean hasNext = items.size() > limit;
+        if (hasNext) {
+            items = items.subList(0, limit);
+        }
         model.addAttribute("items", items);
+        model.addAttribute("offset", offset);
+        model.addAttribute("limit", limit);
+        model.addAttribute("sort", sort);
+        model.addAttribute("hasNext", hasNext);
         return "items/itemList";
     }
 
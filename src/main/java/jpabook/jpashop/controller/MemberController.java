@@ -2,6 +2,8 @@ package jpabook.jpashop.controller;
 
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.member.query.MemberQueryDto;
+import jpabook.jpashop.repository.member.query.MemberQueryRepository;
 import jpabook.jpashop.service.MemberService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
@@ -9,6 +11,7 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -18,6 +21,7 @@ import java.util.List;
 public class MemberController {
 
     private final MemberService memberService;
+    private final MemberQueryRepository memberQueryRepository;
 
     @GetMapping("/members/new")
     public String createForm(Model model) {
@@ -43,9 +47,22 @@ public class MemberController {
     }
 
     @GetMapping("/members")
-    public String list(Model model) {
-        List<Member> members = memberService.findMembers();
+    public String list(@RequestParam(value = "offset", defaultValue = "0") int offset,
+                       @RequestParam(value = "limit", defaultValue = "20") int limit,
+                       @RequestParam(value = "sort", required = false) String sort,
+                       Model model) {
+        Paging.validate(offset, limit);
+        // 다음 페이지 존재 여부를 알기 위해 1개 더 조회한다. (전체 count 쿼리 없음)
+        List<MemberQueryDto> members = memberQueryRepository.findMembers(offset, limit + 1, sort);
+        boolean hasNext = members.size() > limit;
+        if (hasNext) {
+            members = members.subList(0, limit);
+        }
         model.addAttribute("members", members);
+        model.addAttribute("offset", offset);
+        model.addAttribute("limit", limit);
+        model.addAttribute("sort", sort);
+        model.addAttribute("hasNext", hasNext);
         return "members/memberList";
     }
 
@@ -1,11 +1,12 @@
 package jpabook.jpashop.controller;
 
-import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
-import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.OrderSearch;
-import jpabook.jpashop.service.ItemService;
-import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.repository.item.query.ItemQueryDto;
+import jpabook.jpashop.repository.item.query.ItemQueryRepository;
+import jpabook.jpashop.repository.member.query.MemberNameQueryDto;
+import jpabook.jpashop.repository.member.query.MemberQueryRepository;
+import jpabook.jpashop.service.OrderPlacementService;
 import jpabook.jpashop.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
@@ -13,33 +14,40 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.UUID;
 
 @Controller
 @RequiredArgsConstructor
 public class OrderController {
 
     private final OrderService orderService;
-    private final MemberService memberService;
-    private final ItemService itemService;
+    private final MemberQueryRepository memberQueryRepository;
+    private final ItemQueryRepository itemQueryRepository;
+    private final OrderPlacementService orderPlacementService;
 
+    // 선택 목록에는 이름순으로 앞에서부터 일부만 보여준다. 전체 회원/상품을 엔티티로 올리지 않는다.
     @GetMapping("/order")
-    public String createForm(Model model) {
+    public String createForm(@RequestParam(value = "limit", defaultValue = "100") int limit, Model model) {
+        Paging.validateLimit(limit);
 
-        List<Member> members = memberService.findMembers();
-        List<Item> items = itemService.findItems();
+        List<MemberNameQueryDto> members = memberQueryRepository.findMemberNames(0, limit, "name");
+        List<ItemQueryDto> items = itemQueryRepository.findItems(0, limit, "name");
 
         model.addAttribute("members", members);
         model.addAttribute("items", items);
+        // 같은 화면에서 다시 제출하면(시간 초과 후 재시도 등) 같은 주문 키가 간다.
+        model.addAttribute("orderKey", UUID.randomUUID().toString());
 
         return "order/orderForm";
     }
 
     @PostMapping("/order")
-    public String order(@RequestParam("memberId") Long memberId,
+    public String order(@RequestParam(value = "orderKey", required = false) String orderKey,
+                        @RequestParam("memberId") Long memberId,
                         @RequestParam("itemId") Long itemId,
                         @RequestParam("count") int count) {
 
-        orderService.order(memberId, itemId, count);
+        orderPlacementService.order(orderKey, memberId, itemId, count);
         return "redirect:/orders";
     }
 
@@ -0,0 +1,29 @@
+package jpabook.jpashop.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * offset/limit 페이징 파라미터 검증
+ * 범위를 벗어나면 400. limit 상한이 없으면 요청 하나로 테이블 전체를 읽을 수 있다.
+ */
+public class Paging {
+
+    public static final int MAX_LIMIT = 1000;
+
+    private Paging() {
+    }
+
+    public static void validate(int offset, int limit) {
+        if (offset < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "offset 은 0 이상이어야 합니다.");
+        }
+        validateLimit(limit);
+    }
+
+    public static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit 은 1 ~ " + MAX_LIMIT + " 사이여야 합니다.");
+        }
+    }
+}
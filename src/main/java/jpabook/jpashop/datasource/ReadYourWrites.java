@@ -0,0 +1,51 @@
+package jpabook.jpashop.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+
+/**
+ * 쓰기 직후에는 replica 에 아직 반영되지 않았을 수 있다.
+ * 같은 세션에서 쓰기가 커밋된 후 일정 시간 동안은 읽기도 primary 로 보낸다.
+ */
+public class ReadYourWrites {
+
+    private static final String LAST_WRITE_ATTRIBUTE = ReadYourWrites.class.getName() + ".LAST_WRITE";
+
+    private final long windowMillis;
+
+    public ReadYourWrites(Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    void recordWriteAfterCommit() {
+        if (windowMillis <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return; // HTTP 요청이 아니다.
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                attributes.setAttribute(LAST_WRITE_ATTRIBUTE, System.currentTimeMillis(), RequestAttributes.SCOPE_SESSION);
+            }
+        });
+    }
+
+    boolean isSticky() {
+        if (windowMillis <= 0) {
+            return false;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+        Object lastWrite = attributes.getAttribute(LAST_WRITE_ATTRIBUTE, RequestAttributes.SCOPE_SESSION);
+        return lastWrite != null && System.currentTimeMillis() - (Long) lastWrite < windowMillis;
+    }
+}
@@ -0,0 +1,38 @@
+package jpabook.jpashop.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * readOnly 트랜잭션은 replica 로, 나머지는 primary 로 보낸다.
+ * 트랜잭션이 시작된 뒤 실제 커넥션을 얻어야 readOnly 여부를 알 수 있기 때문에 LazyConnectionDataSourceProxy 로 감싸서 사용한다.
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA_PREFIX = "replica-";
+
+    private final int replicaCount;
+    private final ReadYourWrites readYourWrites;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicationRoutingDataSource(int replicaCount, ReadYourWrites readYourWrites) {
+        this.replicaCount = replicaCount;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWrites.recordWriteAfterCommit();
+            return PRIMARY;
+        }
+        if (replicaCount == 0 || readYourWrites.isSticky()) {
+            return PRIMARY;
+        }
+        // replica 들을 돌아가면서 사용한다.
+        return REPLICA_PREFIX + Math.floorMod(next.getAndIncrement(), replicaCount);
+    }
+}
@@ -0,0 +1,59 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * spring.datasource 를 primary 로, jpashop.datasource.routing.replicas 를 replica 로 사용한다.
+ * 스키마 생성(ddl-auto)은 primary 에만 적용되기 때문에 replica 는 primary 와 복제되어 있어야 한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpashop.datasource.routing", name = "enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties, RoutingDataSourceProperties routingProperties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicationRoutingDataSource.PRIMARY, primary);
+
+        List<RoutingDataSourceProperties.Replica> replicas = routingProperties.getReplicas();
+        for (int i = 0; i < replicas.size(); i++) {
+            RoutingDataSourceProperties.Replica replica = replicas.get(i);
+            HikariDataSource replicaDataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build();
+            replicaDataSource.setPoolName(ReplicationRoutingDataSource.REPLICA_PREFIX + i);
+            replicaDataSource.setReadOnly(true);
+            targets.put(ReplicationRoutingDataSource.REPLICA_PREFIX + i, replicaDataSource);
+        }
+
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(
+                replicas.size(), new ReadYourWrites(routingProperties.getStickyWindow()));
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
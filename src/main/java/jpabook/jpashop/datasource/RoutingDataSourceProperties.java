@@ -0,0 +1,30 @@
+package jpabook.jpashop.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "jpashop.datasource.routing")
+public class RoutingDataSourceProperties {
+
+    private boolean enabled = false;
+
+    // 쓰기 후 이 시간 동안은 같은 세션의 읽기도 primary 로 보낸다. (read-your-writes) 0 이면 사용하지 않는다.
+    private Duration stickyWindow = Duration.ZERO;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
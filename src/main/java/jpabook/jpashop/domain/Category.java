@@ -1,6 +1,7 @@
 package jpabook.jpashop.domain;
 
 import jpabook.jpashop.domain.item.Item;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -11,10 +12,15 @@ import java.util.List;
 import static javax.persistence.FetchType.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_category_path", columnList = "path") // 하위 트리 조회 (path like 'prefix%')
+})
 @Getter @Setter
 public class Category {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_seq_generator")
+    @SequenceGenerator(name = "category_seq_generator", sequenceName = "category_seq", allocationSize = 50)
     @Column(name = "category_id")
     private Long id;
 
@@ -33,10 +39,46 @@ public class Category {
     @OneToMany(mappedBy = "parent")
     private List<Category> child = new ArrayList<>();
 
+    // 조상 카테고리 id 경로 (materialized path). 최상위는 "/", 1 -> 5 아래의 카테고리는 "/1/5/"
+    // 하위 트리 전체를 재귀 없이 path like 한 번으로 찾는다.
+    @Setter(AccessLevel.NONE)
+    private String path = "/";
+
+    @Setter(AccessLevel.NONE)
+    private int depth; // 최상위 0
+
     //==연관관계 메서드==//
     public void addChildCategory(Category child) {
         this.child.add(child);
         child.setParent(this);
+        if (id != null) {
+            child.updatePath(); // 아직 저장 전이면 child 를 persist 할 때 계산된다.
+        }
+    }
+
+    //==조회 로직==//
+    /**
+     * 하위 카테고리 path 의 접두사. 자기 자신은 포함하지 않는다.
+     */
+    public String getDescendantPathPrefix() {
+        if (id == null) {
+            throw new IllegalStateException("저장되지 않은 카테고리입니다.");
+        }
+        return path + id + "/";
+    }
+
+    // id 는 persist 이후에 정해지기 때문에 저장 시점에 한 번 더 맞춘다.
+    @PrePersist
+    private void updatePath() {
+        if (parent == null) {
+            path = "/";
+            depth = 0;
+        } else if (parent.getId() != null) {
+            path = parent.getDescendantPathPrefix();
+            depth = parent.getDepth() + 1;
+        } else {
+            throw new IllegalStateException("상위 카테고리를 먼저 저장해야 합니다.");
+        }
     }
 
 }
@@ -0,0 +1,59 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 일별 매출 집계 (하루 SLOTS 개 row)
+ * 주문/취소 시점에 해당 주문일 row 의 값을 더하고 뺀다.
+ * 하루 1 row 면 그 날의 모든 주문이 커밋될 때까지 같은 row lock 을 기다리기 때문에 row 를 나눈다. 조회할 때 합친다.
+ * 기간 매출은 주문을 다시 읽지 않고 이 테이블의 (일 수 * SLOTS) 만큼만 읽는다.
+ */
+@Entity
+@IdClass(DailySales.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class DailySales {
+
+    public static final int SLOTS = 16;
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Id
+    private int slot;
+
+    private long orderCount; // 주문 수 (취소 포함)
+    private long cancelCount; // 취소 수
+    private long revenue; // 취소를 뺀 매출
+
+    public DailySales(LocalDate salesDate, int slot) {
+        this.salesDate = salesDate;
+        this.slot = slot;
+    }
+
+    // 같은 상품의 주문은 같은 row 에 더한다. (어차피 상품 재고 row lock 으로 순서대로 처리된다)
+    public static int slotOf(Long itemId) {
+        return (int) Math.floorMod(itemId, (long) SLOTS);
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private int slot;
+    }
+}
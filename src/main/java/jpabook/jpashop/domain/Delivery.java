@@ -12,7 +12,9 @@ import static javax.persistence.FetchType.*;
 @Getter @Setter
 public class Delivery {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_seq_generator")
+    @SequenceGenerator(name = "delivery_seq_generator", sequenceName = "delivery_seq", allocationSize = 50)
     @Column(name = "delivery_id")
     private Long id;
 
@@ -15,12 +15,30 @@ import java.util.List;
 import static javax.persistence.FetchType.*;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, order_id"), // keyset 페이징
+        @Index(name = "idx_orders_member_id_order_date", columnList = "member_id, order_date") // 회원 이름 검색 (member_id in)
+})
+@NamedEntityGraphs({ // 조회 계획 (OrderFetchPlan)
+        @NamedEntityGraph(name = "Order.withMember", attributeNodes = {
+                @NamedAttributeNode("member")}),
+        @NamedEntityGraph(name = "Order.withMemberDelivery", attributeNodes = {
+                @NamedAttributeNode("member"),
+                @NamedAttributeNode("delivery")}),
+        @NamedEntityGraph(name = "Order.withAll", attributeNodes = {
+                @NamedAttributeNode("member"),
+                @NamedAttributeNode("delivery"),
+                @NamedAttributeNode(value = "orderItems", subgraph = "orderItems")},
+                subgraphs = @NamedSubgraph(name = "orderItems", attributeNodes = @NamedAttributeNode("item")))
+})
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
 
-    @Id @GeneratedValue
+    // 시퀀스를 allocationSize 만큼 한 번에 가져와서 persist 마다 시퀀스를 조회하지 않는다. (pooled-lo 최적화)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq_generator")
+    @SequenceGenerator(name = "orders_seq_generator", sequenceName = "orders_seq", allocationSize = 50)
     @Column(name = "order_id")
     private Long id;
 
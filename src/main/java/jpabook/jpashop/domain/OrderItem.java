@@ -16,7 +16,9 @@ import static javax.persistence.FetchType.*;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class OrderItem {
 
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq_generator")
+    @SequenceGenerator(name = "order_item_seq_generator", sequenceName = "order_item_seq", allocationSize = 50)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -34,12 +36,20 @@ public class OrderItem {
 
     //==생성 메서드==//
     public static OrderItem createOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = createReservedOrderItem(item, orderPrice, count);
+
+        item.removeStock(count);
+        return orderItem;
+    }
+
+    /**
+     * 재고를 이미 차감한 경우 (DB 에서 조건부 update 로 차감)
+     */
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
         OrderItem orderItem = new OrderItem();
         orderItem.setItem(item);
         orderItem.setOrderPrice(orderPrice);
         orderItem.setCount(count);
-
-        item.removeStock(count);
         return orderItem;
     }
 
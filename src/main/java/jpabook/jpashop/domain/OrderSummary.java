@@ -0,0 +1,52 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 목록 조회용 요약 테이블 (주문 1건당 1 row)
+ * 목록 조회 때마다 orders, member, delivery, order_item 을 조인하지 않도록 주문/취소 시점에 같은 트랜잭션에서 갱신한다.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_order_summary_order_date", columnList = "order_date, order_id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId; // 주문 id 를 그대로 사용한다.
+
+    private Long memberId;
+    private String memberName;
+
+    @Embedded
+    private Address address; // 배송지
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private LocalDateTime orderDate;
+    private int itemCount; // 주문상품 수
+    private int totalPrice;
+
+    //==생성 메서드==//
+    public static OrderSummary from(Order order) {
+        OrderSummary summary = new OrderSummary();
+        summary.orderId = order.getId();
+        summary.memberId = order.getMember().getId();
+        summary.memberName = order.getMember().getName();
+        summary.address = order.getDelivery().getAddress();
+        summary.status = order.getStatus();
+        summary.orderDate = order.getOrderDate();
+        summary.itemCount = order.getOrderItems().size();
+        summary.totalPrice = order.getTotalPrice();
+        return summary;
+    }
+}
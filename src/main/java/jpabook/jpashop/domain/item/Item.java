@@ -5,6 +5,8 @@ import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -12,13 +14,19 @@ import java.util.List;
 
 @BatchSize(size = 100) // ToOne인 경우
 @Entity
+@Cacheable // 2차 캐시. 하위 타입(Book, Album, Movie)도 같은 영역을 사용한다.
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = {
+        @Index(name = "idx_item_name", columnList = "name") // 이름순 목록
+})
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype")
 @Getter @Setter
 public abstract class Item {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq_generator")
+    @SequenceGenerator(name = "item_seq_generator", sequenceName = "item_seq", allocationSize = 50)
     @Column(name = "item_id")
     private Long id;
 
@@ -26,6 +34,10 @@ public abstract class Item {
     private int price;
     private int stockQuantity;
 
+    // 동시에 같은 상품의 재고를 변경하면 나중에 커밋하는 쪽이 실패한다. (갱신 분실 방지)
+    @Version
+    private Long version;
+
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
@@ -0,0 +1,96 @@
+package jpabook.jpashop.event;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 데이터 버전
+ * 주문/상품/회원 변경이 커밋될 때마다 증가한다. 조회 API 의 ETag 로 사용한다.
+ * 재시작 후 이전 ETag 가 우연히 같은 값이 되지 않도록 시작 시각에서 출발한다.
+ * 서버마다 따로 센다. (여러 대면 서버마다 ETag 가 다를 수 있다 -> 304 를 못 받을 뿐 잘못된 응답은 없다)
+ */
+@Component
+public class DataVersion {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    private static final List<MediaType> FORMATS = Arrays.asList(MediaType.APPLICATION_JSON, SMILE, MediaType.APPLICATION_CBOR);
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * 강한 ETag ("v{version}-{형식}[-gz]")
+     * 같은 버전이라도 JSON/Smile/CBOR, gzip 여부에 따라 응답 바이트가 다르기 때문에 표현마다 ETag 를 다르게 만든다.
+     * 조회 전에 304 를 판단하기 때문에 형식은 Spring MVC 가 응답 형식을 고르는 방식대로 Accept 헤더에서 미리 고른다.
+     */
+    public String etag(WebRequest webRequest) {
+        String format = negotiate(webRequest.getHeader(HttpHeaders.ACCEPT)).getSubtype(); // json, x-jackson-smile, cbor
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        String encoding = acceptEncoding != null && acceptEncoding.contains("gzip") ? "-gz" : "";
+        return "\"v" + version.get() + "-" + (format.equals(SMILE.getSubtype()) ? "smile" : format) + encoding + "\"";
+    }
+
+    /**
+     * 응답 형식 (AbstractMessageConverterMethodProcessor 와 같은 순서)
+     * Accept 의 각 형식과 호환되는 응답 형식을 모아 구체성/q 값으로 정렬한 뒤 첫 번째를 고른다.
+     * q 값이 같으면 Accept 에 쓴 순서, 그다음은 converter 등록 순서(JSON, Smile, CBOR)
+     */
+    static MediaType negotiate(String accept) {
+        List<MediaType> requested;
+        try {
+            requested = StringUtils.hasText(accept) ? MediaType.parseMediaTypes(accept) : Collections.singletonList(MediaType.ALL);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON; // 어차피 406 이다.
+        }
+        List<MediaType> compatible = new ArrayList<>();
+        for (MediaType requestedType : requested) {
+            for (MediaType format : FORMATS) {
+                if (requestedType.isCompatibleWith(format)) {
+                    compatible.add(format.copyQualityValue(requestedType));
+                }
+            }
+        }
+        MediaType.sortBySpecificityAndQuality(compatible);
+        return compatible.stream()
+                .filter(mediaType -> mediaType.getQualityValue() > 0)
+                .findFirst()
+                .orElse(MediaType.APPLICATION_JSON);
+    }
+
+    // 커밋 전에 올리면 다른 요청이 커밋 전 데이터를 새 버전으로 내려줄 수 있다.
+    // 조회 결과 캐시(OrderQueryCache)를 비운 뒤에 올린다. (가장 마지막 순서)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMemberChanged(MemberChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
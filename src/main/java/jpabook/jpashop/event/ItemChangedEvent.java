@@ -0,0 +1,16 @@
+package jpabook.jpashop.event;
+
+import lombok.Getter;
+
+/**
+ * 상품이 등록되거나 수정되었다.
+ */
+@Getter
+public class ItemChangedEvent {
+
+    private final Long itemId;
+
+    public ItemChangedEvent(Long itemId) {
+        this.itemId = itemId;
+    }
+}
@@ -0,0 +1,16 @@
+package jpabook.jpashop.event;
+
+import lombok.Getter;
+
+/**
+ * 회원이 가입하거나 수정되었다.
+ */
+@Getter
+public class MemberChangedEvent {
+
+    private final Long memberId;
+
+    public MemberChangedEvent(Long memberId) {
+        this.memberId = memberId;
+    }
+}
@@ -0,0 +1,16 @@
+package jpabook.jpashop.event;
+
+import lombok.Getter;
+
+/**
+ * 주문이 생성되거나 취소되었다.
+ */
+@Getter
+public class OrderChangedEvent {
+
+    private final Long orderId;
+
+    public OrderChangedEvent(Long orderId) {
+        this.orderId = orderId;
+    }
+}
@@ -0,0 +1,16 @@
+package jpabook.jpashop.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 허용하지 않는 정렬 파라미터 (요청 오류이기 때문에 400)
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSortException extends IllegalArgumentException {
+
+    public InvalidSortException(String message) {
+        super(message);
+    }
+
+}
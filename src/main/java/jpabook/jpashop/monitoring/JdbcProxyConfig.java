@@ -0,0 +1,42 @@
+package jpabook.jpashop.monitoring;
+
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * DataSource 를 감싸서 모든 JDBC 실행을 등록된 QueryExecutionListener 빈(SQL 통계, 감사 로그)에 전달한다.
+ * Hibernate 뿐 아니라 JDBC 를 직접 쓰는 코드(대량 적재, v6 주문 조회)도 포함된다.
+ * 등록된 listener 가 없으면 감싸지 않는다.
+ */
+@Configuration
+public class JdbcProxyConfig {
+
+    // BeanPostProcessor 는 일찍 생성되기 때문에 static 으로 등록하고 listener 는 늦게 가져온다.
+    @Bean
+    public static BeanPostProcessor jdbcProxyDataSourceWrapper(ObjectProvider<QueryExecutionListener> listeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                List<QueryExecutionListener> found = listeners.orderedStream().collect(Collectors.toList());
+                if (found.isEmpty()) {
+                    return bean;
+                }
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create((DataSource) bean).name(beanName);
+                found.forEach(builder::listener);
+                return builder.build();
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 엔티티 로딩과 지연 로딩(프록시, 컬렉션 초기화)을 요청 단위로 센다.
+ * 같은 위치에서 지연 로딩이 반복되면 N+1 이 발생한 코드 위치를 로그로 남긴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryCountEventListener implements PostLoadEventListener, LoadEventListener, InitializeCollectionEventListener {
+
+    private static final String APP_PACKAGE = "jpabook.jpashop.";
+    private static final String MONITORING_PACKAGE = "jpabook.jpashop.monitoring.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final EntityManagerFactory emf;
+    private final QueryCountProperties properties;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, this);
+        registry.appendListeners(EventType.LOAD, this);
+        registry.appendListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.increaseEntityLoadCount();
+        }
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) {
+        // 프록시 초기화는 IMMEDIATE_LOAD 로 들어온다.
+        if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+            recordLazyLoad(event.getEntityClassName());
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        recordLazyLoad(event.getCollection().getRole());
+    }
+
+    private void recordLazyLoad(String target) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats == null) {
+            return;
+        }
+
+        String callSite = target + " at " + findCallSite();
+        int count = stats.increaseLazyLoadCount(callSite);
+        // 임계치를 처음 넘는 순간에 한 번만 남긴다.
+        if (count == properties.getLazyLoadThreshold() + 1) {
+            log.warn("N+1 suspected: lazy loading of {} exceeded {} times in request {}",
+                    callSite, properties.getLazyLoadThreshold(), stats.getRequestUri());
+        }
+    }
+
+    // 지연 로딩을 일으킨 애플리케이션 코드의 위치
+    private String findCallSite() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APP_PACKAGE)
+                        && !f.getClassName().startsWith(MONITORING_PACKAGE))
+                .findFirst()
+                .map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("unknown"));
+    }
+}
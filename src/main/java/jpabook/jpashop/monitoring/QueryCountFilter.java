@@ -0,0 +1,68 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 요청마다 쿼리 수 집계를 시작하고, 끝나면 메트릭으로 기록한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-Query-Count";
+    public static final String ENTITY_LOAD_COUNT_HEADER = "X-Entity-Load-Count";
+    public static final String LAZY_LOAD_COUNT_HEADER = "X-Lazy-Load-Count";
+
+    private final QueryCountProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.begin(request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.end();
+            // API 응답은 QueryCountResponseAdvice 에서 이미 헤더를 넣었다. 아직 응답이 나가지 않았다면 최종 값으로 덮어쓴다.
+            if (!response.isCommitted()) {
+                response.setHeader(STATEMENT_COUNT_HEADER, String.valueOf(stats.getStatementCount()));
+                response.setHeader(ENTITY_LOAD_COUNT_HEADER, String.valueOf(stats.getEntityLoadCount()));
+                response.setHeader(LAZY_LOAD_COUNT_HEADER, String.valueOf(stats.getLazyLoadCount()));
+            }
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestQueryStats stats) {
+        // uri 는 패턴으로 기록해야 태그 수가 늘어나지 않는다.
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        summary("jpashop.request.sql.statements", uri).record(stats.getStatementCount());
+        summary("jpashop.request.entity.loads", uri).record(stats.getEntityLoadCount());
+        summary("jpashop.request.lazy.loads", uri).record(stats.getLazyLoadCount());
+    }
+
+    private DistributionSummary summary(String name, String uri) {
+        return DistributionSummary.builder(name)
+                .tag("uri", uri)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,16 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "jpashop.query-count")
+public class QueryCountProperties {
+
+    private boolean enabled = true;
+    // 한 요청에서 같은 위치의 지연 로딩이 이 횟수를 넘으면 N+1 로 보고 로그를 남긴다.
+    private int lazyLoadThreshold = 10;
+}
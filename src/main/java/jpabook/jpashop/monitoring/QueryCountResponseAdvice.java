@@ -0,0 +1,37 @@
+package jpabook.jpashop.monitoring;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * API 응답은 body 를 쓰는 순간 커밋되기 때문에 필터에서는 헤더를 넣을 수 없다.
+ * body 를 쓰기 직전에 그때까지의 집계를 헤더로 넣는다.
+ */
+@RestControllerAdvice
+public class QueryCountResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set(QueryCountFilter.STATEMENT_COUNT_HEADER, String.valueOf(stats.getStatementCount()));
+            headers.set(QueryCountFilter.ENTITY_LOAD_COUNT_HEADER, String.valueOf(stats.getEntityLoadCount()));
+            headers.set(QueryCountFilter.LAZY_LOAD_COUNT_HEADER, String.valueOf(stats.getLazyLoadCount()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,29 @@
+package jpabook.jpashop.monitoring;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Hibernate 가 실행하는 모든 SQL 을 요청 단위로 센다.
+ */
+@Component
+public class QueryCountStatementInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    @Override
+    public String inspect(String sql) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            stats.increaseStatementCount();
+        }
+        return sql; // SQL 은 그대로 둔다.
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+}
@@ -0,0 +1,57 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HTTP 요청 하나 동안 발생한 쿼리/엔티티 로딩 횟수
+ * 요청 스레드에 묶어두고 요청이 끝나면 제거한다.
+ */
+@Getter
+public class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private final String requestUri;
+    private int statementCount;
+    private int entityLoadCount;
+    private int lazyLoadCount;
+    // key: 지연 로딩 대상 + 호출 위치, value: 발생 횟수
+    private final Map<String, Integer> lazyLoadCountByCallSite = new HashMap<>();
+
+    private RequestQueryStats(String requestUri) {
+        this.requestUri = requestUri;
+    }
+
+    public static RequestQueryStats begin(String requestUri) {
+        RequestQueryStats stats = new RequestQueryStats(requestUri);
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    void increaseStatementCount() {
+        statementCount++;
+    }
+
+    void increaseEntityLoadCount() {
+        entityLoadCount++;
+    }
+
+    /**
+     * @return 같은 호출 위치에서 발생한 지연 로딩 횟수
+     */
+    int increaseLazyLoadCount(String callSite) {
+        lazyLoadCount++;
+        return lazyLoadCountByCallSite.merge(callSite, 1, Integer::sum);
+    }
+}
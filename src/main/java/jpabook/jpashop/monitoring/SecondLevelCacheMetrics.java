@@ -0,0 +1,47 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 2차 캐시 영역별 hit/miss 비율
+ * hit, miss 횟수는 hibernate-micrometer 가 hibernate.second.level.cache.requests 로 기록한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory emf;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder("jpashop.cache.hit.ratio", statistics, s -> ratio(s, region, true))
+                    .tag("region", region)
+                    .register(registry);
+            Gauge.builder("jpashop.cache.miss.ratio", statistics, s -> ratio(s, region, false))
+                    .tag("region", region)
+                    .register(registry);
+        }
+    }
+
+    private static double ratio(Statistics statistics, String region, boolean hit) {
+        CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+        long hits = regionStatistics.getHitCount();
+        long misses = regionStatistics.getMissCount();
+        long total = hits + misses;
+        if (total == 0) {
+            return 0;
+        }
+        return (double) (hit ? hits : misses) / total;
+    }
+}
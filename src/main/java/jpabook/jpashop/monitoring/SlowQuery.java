@@ -0,0 +1,24 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+public class SlowQuery {
+
+    private final Instant executedAt;
+    private final double elapsedMs;
+    private final String shapeId;
+    private final String sql;
+    private final List<List<String>> parameters; // 배치면 batch 마다 한 줄
+
+    public SlowQuery(Instant executedAt, double elapsedMs, String shapeId, String sql, List<List<String>> parameters) {
+        this.executedAt = executedAt;
+        this.elapsedMs = elapsedMs;
+        this.shapeId = shapeId;
+        this.sql = sql;
+        this.parameters = parameters;
+    }
+}
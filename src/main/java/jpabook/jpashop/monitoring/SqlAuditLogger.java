@@ -0,0 +1,255 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * SQL 감사 로그
+ * 일부(sampleRate)와 느린 SQL 만 남긴다. 요청 스레드는 값만 담아서 큐에 넣고,
+ * 문자열 변환과 로그 출력은 백그라운드 스레드가 모아서 한다.
+ * 로거 이름: jpashop.sql.audit
+ * writer 스레드는 컨텍스트가 시작될 때 띄우고, 종료될 때 남은 항목을 모두 쓴 뒤 멈춘다. (다른 빈보다 늦게 멈춘다)
+ *
+ * 출력 예) ts=2024-01-01T00:00:00.123Z ms=12.345 uri=/api/v5/orders thread=http-nio-8080-exec-1 batch=false ok=true sql="select ..." params=[[1, 'A']]
+ */
+@Slf4j(topic = "jpashop.sql.audit")
+@Component
+@ConditionalOnProperty(prefix = "jpashop.sql-audit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAuditLogger implements QueryExecutionListener, SmartLifecycle {
+
+    private static final String START_NANOS = "sqlAudit.startNanos";
+    private static final int MAX_PARAMETER_LENGTH = 64;
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final int queueCapacity;
+    private final long flushIntervalNanos;
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger(); // ConcurrentLinkedQueue.size() 는 O(n) 이다.
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Consumer<String> sink;
+
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public SqlAuditLogger(SqlAuditProperties properties) {
+        this(properties, log::info);
+    }
+
+    // 테스트에서 출력 대상을 바꾼다.
+    SqlAuditLogger(SqlAuditProperties properties, Consumer<String> sink) {
+        this.sampleRate = properties.getSampleRate();
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.queueCapacity = properties.getQueueCapacity();
+        this.flushIntervalNanos = properties.getFlushInterval().toNanos();
+        this.sink = sink;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsedNanos = start != null
+                ? System.nanoTime() - start
+                : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+
+        RequestQueryStats stats = RequestQueryStats.current();
+        queue.offer(new Entry(System.currentTimeMillis(), elapsedNanos,
+                stats != null ? stats.getRequestUri() : null,
+                Thread.currentThread().getName(),
+                execInfo.isBatch(), execInfo.isSuccess(),
+                queryInfoList.size() == 1 ? queryInfoList.get(0).getQuery() : joinQueries(queryInfoList),
+                captureParameters(queryInfoList)));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "sql-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        Thread current = writer;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+        drain(new StringBuilder(512)); // 시작하지 않았거나 writer 가 늦게 끝난 경우에도 남은 항목을 쓴다.
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // 낮은 phase 는 먼저 시작하고 마지막에 멈춘다. 종료 중에 실행된 SQL 까지 남긴다.
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
+    }
+
+    long droppedCount() {
+        return dropped.get();
+    }
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(512);
+        while (running) {
+            LockSupport.parkNanos(flushIntervalNanos);
+            drain(line);
+        }
+        drain(line); // 종료 전에 남은 항목
+    }
+
+    private void drain(StringBuilder line) {
+        Entry entry;
+        while ((entry = queue.poll()) != null) {
+            queued.decrementAndGet();
+            line.setLength(0);
+            entry.appendTo(line);
+            sink.accept(line.toString());
+        }
+        long droppedCount = dropped.getAndSet(0);
+        if (droppedCount > 0) {
+            log.warn("dropped={} (queue full)", droppedCount);
+        }
+    }
+
+    // 값 참조만 복사한다. 문자열 변환은 writer 스레드에서 한다.
+    private static List<Object[]> captureParameters(List<QueryInfo> queryInfoList) {
+        List<Object[]> result = new ArrayList<>();
+        for (QueryInfo queryInfo : queryInfoList) {
+            for (List<ParameterSetOperation> operations : queryInfo.getParametersList()) {
+                Object[] values = new Object[operations.size()];
+                for (int i = 0; i < values.length; i++) {
+                    Object[] args = operations.get(i).getArgs();
+                    values[i] = args.length > 1 ? args[1] : null;
+                }
+                result.add(values);
+            }
+        }
+        return result;
+    }
+
+    private static String joinQueries(List<QueryInfo> queryInfoList) {
+        StringBuilder sb = new StringBuilder();
+        for (QueryInfo queryInfo : queryInfoList) {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            sb.append(queryInfo.getQuery());
+        }
+        return sb.toString();
+    }
+
+    private static final class Entry {
+        private final long timestamp;
+        private final long elapsedNanos;
+        private final String uri;
+        private final String thread;
+        private final boolean batch;
+        private final boolean success;
+        private final String sql;
+        private final List<Object[]> parameters;
+
+        Entry(long timestamp, long elapsedNanos, String uri, String thread,
+              boolean batch, boolean success, String sql, List<Object[]> parameters) {
+            this.timestamp = timestamp;
+            this.elapsedNanos = elapsedNanos;
+            this.uri = uri;
+            this.thread = thread;
+            this.batch = batch;
+            this.success = success;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+        void appendTo(StringBuilder sb) {
+            sb.append("ts=").append(Instant.ofEpochMilli(timestamp))
+                    .append(" ms=").append(String.format("%.3f", elapsedNanos / 1_000_000.0))
+                    .append(" uri=").append(uri == null ? "-" : uri)
+                    .append(" thread=").append(thread)
+                    .append(" batch=").append(batch)
+                    .append(" ok=").append(success)
+                    .append(" sql=\"").append(sql.replaceAll("\\s+", " ").replace("\"", "\\\"")).append('"')
+                    .append(" params=[");
+            for (int i = 0; i < parameters.size(); i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append('[');
+                Object[] values = parameters.get(i);
+                for (int j = 0; j < values.length; j++) {
+                    if (j > 0) {
+                        sb.append(", ");
+                    }
+                    appendValue(sb, values[j]);
+                }
+                sb.append(']');
+            }
+            sb.append(']');
+        }
+
+        private static void appendValue(StringBuilder sb, Object value) {
+            if (value == null) {
+                sb.append("null");
+                return;
+            }
+            String text = String.valueOf(value);
+            if (text.length() > MAX_PARAMETER_LENGTH) {
+                text = text.substring(0, MAX_PARAMETER_LENGTH) + "...";
+            }
+            if (value instanceof Number || value instanceof Boolean) {
+                sb.append(text);
+            } else {
+                sb.append('\'').append(text.replace("'", "''")).append('\'');
+            }
+        }
+    }
+}
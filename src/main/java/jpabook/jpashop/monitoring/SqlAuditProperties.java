@@ -0,0 +1,23 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "jpashop.sql-audit")
+public class SqlAuditProperties {
+
+    private boolean enabled = true;
+    // 모든 SQL 중 이 비율만큼 무작위로 남긴다. 0 이면 느린 SQL 만 남긴다.
+    private double sampleRate = 0.01;
+    // 이 시간 이상 걸린 SQL 은 항상 남긴다.
+    private Duration slowThreshold = Duration.ofMillis(200);
+    // 쓰기 대기 중인 항목 최대 수. 넘치면 버리고 개수만 센다. (요청 스레드를 막지 않는다)
+    private int queueCapacity = 10_000;
+    private Duration flushInterval = Duration.ofMillis(200);
+}
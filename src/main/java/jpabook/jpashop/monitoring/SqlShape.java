@@ -0,0 +1,31 @@
+package jpabook.jpashop.monitoring;
+
+import java.util.regex.Pattern;
+
+/**
+ * SQL 문장을 형태(shape)로 정규화한다.
+ * 리터럴은 ? 로 바꾸고, in (?, ?, ...) 은 개수와 상관없이 in (?) 로 합친다.
+ * 같은 형태의 SQL 은 같은 히스토그램에 기록된다.
+ */
+final class SqlShape {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlShape() {
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    // 메트릭 태그로 쓰는 짧은 id
+    static String id(String shape) {
+        return Integer.toHexString(shape.hashCode());
+    }
+}
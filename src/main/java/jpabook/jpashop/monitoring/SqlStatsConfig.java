@@ -0,0 +1,19 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * SQL 형태별 실행 시간 측정. DataSource 는 JdbcProxyConfig 에서 감싼다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpashop.sql-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatsConfig {
+
+    @Bean
+    public SqlStatsListener sqlStatsListener(MeterRegistry meterRegistry, SqlStatsProperties properties) {
+        return new SqlStatsListener(meterRegistry, properties);
+    }
+}
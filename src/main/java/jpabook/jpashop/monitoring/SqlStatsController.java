@@ -0,0 +1,67 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * SQL 형태별 실행 통계와 느린 SQL 목록 (내부용)
+ * 같은 값이 /actuator/metrics/jpashop.sql.statement?tag=shape:{shapeId} 로도 나간다.
+ */
+@RestController
+@ConditionalOnProperty(prefix = "jpashop.sql-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SqlStatsController {
+
+    private final SqlStatsListener sqlStatsListener;
+
+    // 전체 실행 시간이 긴 순서
+    @GetMapping("/internal/sql-stats")
+    public List<ShapeStatsDto> sqlStats() {
+        return sqlStatsListener.getShapes().stream()
+                .map(ShapeStatsDto::new)
+                .sorted(Comparator.comparingDouble(ShapeStatsDto::getTotalMs).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @GetMapping("/internal/sql-stats/slow")
+    public List<SlowQuery> slowQueries() {
+        return sqlStatsListener.getSlowQueries();
+    }
+
+    @Data
+    static class ShapeStatsDto {
+        private String shapeId;
+        private String sql;
+        private long count;
+        private double totalMs;
+        private double p50Ms;
+        private double p99Ms;
+        private double maxMs; // 최근 구간(기본 2분)의 최대값
+
+        ShapeStatsDto(SqlStatsListener.ShapeStats stats) {
+            HistogramSnapshot snapshot = stats.getTimer().takeSnapshot();
+            shapeId = stats.getShapeId();
+            sql = stats.getSql();
+            count = snapshot.count();
+            totalMs = snapshot.total(TimeUnit.MILLISECONDS);
+            maxMs = snapshot.max(TimeUnit.MILLISECONDS);
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                if (percentile.percentile() == 0.5) {
+                    p50Ms = percentile.value(TimeUnit.MILLISECONDS);
+                } else if (percentile.percentile() == 0.99) {
+                    p99Ms = percentile.value(TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+}
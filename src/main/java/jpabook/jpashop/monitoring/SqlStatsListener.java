@@ -0,0 +1,155 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC 실행마다 SQL 형태(shape)별 Timer 에 실행 시간을 기록한다.
+ * 로그를 남기지 않고 메모리의 히스토그램만 갱신하기 때문에 운영에서도 켜둘 수 있다.
+ * 느린 SQL 만 바인딩 파라미터와 함께 고정 크기 링 버퍼에 남긴다. (오래된 것부터 덮어쓴다)
+ */
+public class SqlStatsListener implements QueryExecutionListener {
+
+    static final String METRIC_NAME = "jpashop.sql.statement";
+    private static final String START_NANOS = "sqlStats.startNanos";
+    private static final String OTHER_SHAPE = "other";
+    private static final int MAX_CACHED_SQL = 10_000;
+    private static final int MAX_PARAMETER_LENGTH = 64;
+
+    private final MeterRegistry meterRegistry;
+    private final SqlStatsProperties properties;
+    private final long slowThresholdNanos;
+
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final Map<String, String> normalized = new ConcurrentHashMap<>(); // 원본 SQL -> shape (정규식 비용 절약)
+
+    private final AtomicReferenceArray<SlowQuery> slowQueries;
+    private final AtomicLong slowQuerySequence = new AtomicLong();
+
+    public SqlStatsListener(MeterRegistry meterRegistry, SqlStatsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.slowThresholdNanos = properties.getSlowQueryThreshold().toNanos();
+        this.slowQueries = new AtomicReferenceArray<>(Math.max(1, properties.getSlowQueryBufferSize()));
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsedNanos = start != null
+                ? System.nanoTime() - start
+                : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            String sql = queryInfo.getQuery();
+            ShapeStats stats = shapeStats(sql);
+            stats.getTimer().record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+            if (elapsedNanos >= slowThresholdNanos) {
+                addSlowQuery(new SlowQuery(Instant.now(), elapsedNanos / 1_000_000.0,
+                        stats.getShapeId(), sql, parameters(queryInfo)));
+            }
+        }
+    }
+
+    public Collection<ShapeStats> getShapes() {
+        return shapes.values();
+    }
+
+    // 느린 순서
+    public List<SlowQuery> getSlowQueries() {
+        List<SlowQuery> result = new ArrayList<>(slowQueries.length());
+        for (int i = 0; i < slowQueries.length(); i++) {
+            SlowQuery slowQuery = slowQueries.get(i);
+            if (slowQuery != null) {
+                result.add(slowQuery);
+            }
+        }
+        result.sort(Comparator.comparingDouble(SlowQuery::getElapsedMs).reversed());
+        return result;
+    }
+
+    private ShapeStats shapeStats(String sql) {
+        String shape = normalized.get(sql);
+        if (shape == null) {
+            shape = SqlShape.normalize(sql);
+            if (normalized.size() < MAX_CACHED_SQL) {
+                normalized.put(sql, shape);
+            }
+        }
+
+        ShapeStats stats = shapes.get(shape);
+        if (stats != null) {
+            return stats;
+        }
+        // 형태가 계속 늘어나도 메트릭 수가 무한히 늘어나지 않도록 제한한다.
+        String key = shapes.size() < properties.getMaxShapes() ? shape : OTHER_SHAPE;
+        return shapes.computeIfAbsent(key, this::newShapeStats);
+    }
+
+    private ShapeStats newShapeStats(String shape) {
+        String shapeId = OTHER_SHAPE.equals(shape) ? OTHER_SHAPE : SqlShape.id(shape);
+        Timer timer = Timer.builder(METRIC_NAME)
+                .description("JDBC statement execution time by SQL shape")
+                .tag("shape", shapeId)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        return new ShapeStats(shapeId, shape, timer);
+    }
+
+    private void addSlowQuery(SlowQuery slowQuery) {
+        int slot = (int) (slowQuerySequence.getAndIncrement() % slowQueries.length());
+        slowQueries.set(slot, slowQuery);
+    }
+
+    // 느린 SQL 만 파라미터를 문자열로 만든다.
+    private static List<List<String>> parameters(QueryInfo queryInfo) {
+        return queryInfo.getParametersList().stream()
+                .map(operations -> operations.stream()
+                        .map(SqlStatsListener::parameterValue)
+                        .collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+
+    private static String parameterValue(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        Object value = args.length > 1 ? args[1] : null;
+        String text = String.valueOf(value);
+        return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+    }
+
+    @Getter
+    public static class ShapeStats {
+        private final String shapeId;
+        private final String sql;
+        private final Timer timer;
+
+        ShapeStats(String shapeId, String sql, Timer timer) {
+            this.shapeId = shapeId;
+            this.sql = sql;
+            this.timer = timer;
+        }
+    }
+}
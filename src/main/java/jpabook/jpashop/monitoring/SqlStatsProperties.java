@@ -0,0 +1,21 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "jpashop.sql-stats")
+public class SqlStatsProperties {
+
+    private boolean enabled = true;
+    // 이 시간 이상 걸린 SQL 은 바인딩 파라미터와 함께 느린 쿼리 버퍼에 남긴다.
+    private Duration slowQueryThreshold = Duration.ofMillis(100);
+    private int slowQueryBufferSize = 100;
+    // SQL 형태(shape)별 메트릭 최대 개수. 넘어가면 "other" 로 모은다.
+    private int maxShapes = 500;
+}
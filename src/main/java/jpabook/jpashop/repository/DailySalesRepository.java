@@ -0,0 +1,87 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.DailySales;
+import jpabook.jpashop.repository.sales.DailySalesDto;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class DailySalesRepository {
+
+    private final EntityManager em;
+
+    public void save(DailySales dailySales) {
+        em.persist(dailySales);
+    }
+
+    // 날짜마다 나눠진 row 를 합친다.
+    public List<DailySalesDto> findBetween(LocalDate from, LocalDate to) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.sales.DailySalesDto(s.salesDate, sum(s.orderCount), sum(s.cancelCount), sum(s.revenue))" +
+                        " from DailySales s" +
+                        " where s.salesDate >= :from and s.salesDate < :to" +
+                        " group by s.salesDate" +
+                        " order by s.salesDate", DailySalesDto.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    // 조회 없이 DB 에서 더한다. 같은 row(날짜, slot) 에 더하는 주문끼리만 row lock 으로 순서대로 반영된다.
+    // 해당 row 가 없으면 0 을 반환한다.
+    public int addOrders(LocalDate salesDate, int slot, int orderCount, long amount) {
+        return em.createQuery(
+                "update DailySales s" +
+                        " set s.orderCount = s.orderCount + :orderCount, s.revenue = s.revenue + :amount" +
+                        " where s.salesDate = :salesDate and s.slot = :slot")
+                .setParameter("orderCount", orderCount)
+                .setParameter("amount", amount)
+                .setParameter("salesDate", salesDate)
+                .setParameter("slot", slot)
+                .executeUpdate();
+    }
+
+    public int addCancels(LocalDate salesDate, int slot, int cancelCount, long amount) {
+        return em.createQuery(
+                "update DailySales s" +
+                        " set s.cancelCount = s.cancelCount + :cancelCount, s.revenue = s.revenue - :amount" +
+                        " where s.salesDate = :salesDate and s.slot = :slot")
+                .setParameter("cancelCount", cancelCount)
+                .setParameter("amount", amount)
+                .setParameter("salesDate", salesDate)
+                .setParameter("slot", slot)
+                .executeUpdate();
+    }
+
+    public int deleteAll() {
+        return em.createQuery("delete from DailySales s")
+                .executeUpdate();
+    }
+
+    /**
+     * 주문 테이블에서 일별 집계 전체를 다시 만든다.
+     * 주문별 금액을 먼저 구한 뒤 주문일 기준으로 묶는다. (날짜마다 slot 0 한 row)
+     */
+    public int insertAllFromOrders() {
+        return em.createNativeQuery(
+                "insert into daily_sales (sales_date, slot, order_count, cancel_count, revenue)" +
+                        " select t.sales_date, 0, count(*)," +
+                        " sum(case when t.status = 'CANCEL' then 1 else 0 end)," +
+                        " sum(case when t.status = 'CANCEL' then 0 else t.amount end)" +
+                        " from (select cast(o.order_date as date) sales_date, o.status status," +
+                        " coalesce(sum(oi.order_price * oi.count), 0) amount" +
+                        " from orders o" +
+                        " left join order_item oi on oi.order_id = o.order_id" +
+                        " group by o.order_id, o.order_date, o.status) t" +
+                        " group by t.sales_date")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(DailySales.class) // 지정하지 않으면 2차 캐시 전체가 비워진다.
+                .executeUpdate();
+    }
+}
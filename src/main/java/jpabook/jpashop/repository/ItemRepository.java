@@ -2,6 +2,7 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.item.Item;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -12,6 +13,7 @@ import java.util.List;
 public class ItemRepository {
 
     private final EntityManager em;
+    private final SecondLevelCacheEvictor cacheEvictor;
 
     public void save(Item item) {
         if (item.getId() == null) {
@@ -29,4 +31,36 @@ public class ItemRepository {
         return em.createQuery("select i from Item i", Item.class)
                 .getResultList();
     }
+
+    // 재고 확인과 차감을 조건부 update 한 번으로 처리한다. 읽고 쓰는 사이에 다른 트랜잭션이 끼어들 수 없다.
+    // 엔티티로 재고를 변경하는 트랜잭션과 섞여도 @Version 충돌로 감지되도록 버전도 올린다.
+    public boolean removeStock(Long itemId, int quantity) {
+        cacheEvictor.lockUntilCompletion(em, Item.class, itemId);
+        int updated = em.createNativeQuery(
+                "update item" +
+                        " set stock_quantity = stock_quantity - :quantity, version = version + 1" +
+                        " where item_id = :itemId" +
+                        " and stock_quantity >= :quantity")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .unwrap(NativeQuery.class)
+                // JPQL 벌크 연산은 2차 캐시의 Item 영역 전체를 비운다. 동기화 대상을 비워두고 해당 상품만 위에서 잠근다.
+                .addSynchronizedQuerySpace("")
+                .executeUpdate();
+        return updated == 1;
+    }
+
+    // 취소된 주문들의 수량을 합쳐서 상품마다 한 번에 되돌린다.
+    public void addStock(Long itemId, long quantity) {
+        cacheEvictor.lockUntilCompletion(em, Item.class, itemId);
+        em.createNativeQuery(
+                "update item" +
+                        " set stock_quantity = stock_quantity + :quantity, version = version + 1" +
+                        " where item_id = :itemId")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("")
+                .executeUpdate();
+    }
 }
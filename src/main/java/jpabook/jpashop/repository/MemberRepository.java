@@ -2,10 +2,13 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.Member;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
@@ -31,4 +34,33 @@ public class MemberRepository {
                 .setParameter("name", name)
                 .getResultList();
     }
+
+    // 엔티티를 만들지 않고 id 하나만, 찾으면 바로 멈춘다. (member.name unique 인덱스)
+    public boolean existsByName(String name) {
+        return !em.createQuery("select m.id from Member m where m.name = :name", Long.class)
+                .setParameter("name", name)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    // insert 를 바로 실행해서 unique 제약조건 위반을 이 시점에 확인한다.
+    public void saveAndFlush(Member member) {
+        em.persist(member);
+        em.flush();
+    }
+
+    // 이름만 forward-only 로 읽는다. 회원 수와 상관없이 메모리에 목록을 만들지 않는다.
+    public long forEachName(Consumer<String> consumer) {
+        try (Stream<String> names = em.createQuery("select m.name from Member m", String.class)
+                .setHint(QueryHints.FETCH_SIZE, 1000)
+                .getResultStream()) {
+            long[] count = {0};
+            names.forEach(name -> {
+                consumer.accept(name);
+                count[0]++;
+            });
+            return count[0];
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Order;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 주문 목록 keyset(seek) 페이징 커서
+ * (orderDate, id) 를 기준으로 마지막으로 읽은 위치를 기억한다.
+ * 클라이언트에게는 내용을 알 수 없는 토큰 형태로 내려준다.
+ */
+@Getter
+public class OrderCursor {
+
+    private static final String DELIMITER = "|";
+
+    private final LocalDateTime orderDate;
+    private final Long id;
+
+    public OrderCursor(LocalDateTime orderDate, Long id) {
+        this.orderDate = orderDate;
+        this.id = id;
+    }
+
+    public static OrderCursor of(Order order) {
+        return new OrderCursor(order.getOrderDate(), order.getId());
+    }
+
+    public String encode() {
+        String raw = orderDate + DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int idx = raw.lastIndexOf(DELIMITER);
+            if (idx < 0) {
+                throw new IllegalArgumentException("잘못된 커서입니다.");
+            }
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, idx)),
+                    Long.valueOf(raw.substring(idx + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package jpabook.jpashop.repository;
+
+/**
+ * 주문 조회 계획
+ * API 마다 DTO 에 필요한 연관관계만 같이 가져온다. (Order 의 @NamedEntityGraph)
+ * 지정하지 않은 연관관계는 지연 로딩 + default_batch_fetch_size 로 가져온다.
+ */
+public enum OrderFetchPlan {
+
+    NONE(null, false), // 주문만
+    MEMBER("Order.withMember", false), // 주문 + 회원
+    MEMBER_DELIVERY("Order.withMemberDelivery", false), // 주문 + 회원 + 배송
+    ALL("Order.withAll", true); // 주문 + 회원 + 배송 + 주문상품 + 상품
+
+    private final String entityGraph;
+    private final boolean collectionFetch; // 컬렉션을 페치 조인하면 DB 에서 페이징할 수 없다.
+
+    OrderFetchPlan(String entityGraph, boolean collectionFetch) {
+        this.entityGraph = entityGraph;
+        this.collectionFetch = collectionFetch;
+    }
+
+    public String getEntityGraph() {
+        return entityGraph;
+    }
+
+    public boolean isCollectionFetch() {
+        return collectionFetch;
+    }
+}
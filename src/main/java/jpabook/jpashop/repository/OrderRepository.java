@@ -1,21 +1,31 @@
 package jpabook.jpashop.repository;
 
+import jpabook.jpashop.domain.DeliveryStatus;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.search.MemberNameSearch;
 
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.TypedQuery;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @Repository
 public class OrderRepository {
 
     private final EntityManager em;
+    private final MemberNameSearch memberNameSearch;
 
-    public OrderRepository(EntityManager em) {
+    public OrderRepository(EntityManager em, MemberNameSearch memberNameSearch) {
         this.em = em;
+        this.memberNameSearch = memberNameSearch;
     }
 
     public void save(Order order) {
@@ -32,9 +42,178 @@ public class OrderRepository {
     }
 
     public List<Order> findAllByString(OrderSearch orderSearch) {
+        List<Long> memberIds = findMemberIds(orderSearch);
+        if (memberIds != null && memberIds.isEmpty()) {
+            return Collections.emptyList(); // 이름이 일치하는 회원이 없다.
+        }
+
+        String jpql = "select o from Order o join o.member m" + searchCondition(orderSearch, memberIds);
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setMaxResults(1000);
+        bindSearchParameters(query, orderSearch, memberIds);
+
+        return query.getResultList();
+    }
+
+    /**
+     * 검색 조건 + 조회 계획
+     * 연관관계를 어디까지 같이 가져올지는 엔티티 그래프로 지정한다. 조회 계획마다 메서드를 따로 만들지 않는다.
+     * 컬렉션까지 가져오는 계획은 id 를 먼저 페이징한 뒤 해당 주문만 그래프로 조회한다. (쿼리 2번)
+     */
+    public List<Order> findAll(OrderSearch orderSearch, OrderFetchPlan plan, int offset, int limit) {
+        List<Long> memberIds = findMemberIds(orderSearch);
+        if (memberIds != null && memberIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String from = " from Order o join o.member m" + searchCondition(orderSearch, memberIds);
+        String orderBy = " order by o.id desc";
 
-            String jpql = "select o from Order o join o.member m";
-            boolean isFirstCondition = true;
+        if (!plan.isCollectionFetch()) {
+            TypedQuery<Order> query = em.createQuery("select o" + from + orderBy, Order.class)
+                    .setFirstResult(offset)
+                    .setMaxResults(limit);
+            bindSearchParameters(query, orderSearch, memberIds);
+            applyFetchPlan(query, plan);
+            return query.getResultList();
+        }
+
+        TypedQuery<Long> idQuery = em.createQuery("select o.id" + from + orderBy, Long.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        bindSearchParameters(idQuery, orderSearch, memberIds);
+        List<Long> ids = idQuery.getResultList();
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        TypedQuery<Order> query = em.createQuery(
+                "select distinct o from Order o where o.id in :ids" + orderBy, Order.class)
+                .setParameter("ids", ids);
+        applyFetchPlan(query, plan);
+        return query.getResultList();
+    }
+
+    /**
+     * 이름이 정확히 일치하는 회원의 주문 id (id 순, afterId 다음부터 limit 개)
+     * 일괄 취소처럼 전체를 chunk 로 나눠 처리할 때 사용한다.
+     * 검색 화면의 부분 일치를 쓰면 이름에 검색어가 들어간 다른 회원의 주문까지 취소되기 때문에 정확히 비교한다.
+     */
+    public List<Long> findIdsByMemberName(String memberName, OrderStatus status, Long afterId, int limit) {
+        String jpql = "select o.id from Order o join o.member m" + memberNameCondition(status);
+        if (afterId != null) {
+            jpql += " and o.id > :afterId";
+        }
+        jpql += " order by o.id";
+
+        TypedQuery<Long> query = em.createQuery(jpql, Long.class)
+                .setParameter("name", memberName)
+                .setMaxResults(limit);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        return query.getResultList();
+    }
+
+    public long countByMemberName(String memberName, OrderStatus status) {
+        TypedQuery<Long> query = em.createQuery(
+                "select count(o) from Order o join o.member m" + memberNameCondition(status), Long.class)
+                .setParameter("name", memberName);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        return query.getSingleResult();
+    }
+
+    private static String memberNameCondition(OrderStatus status) {
+        String jpql = " where m.name = :name"; // member.name unique 인덱스
+        if (status != null) {
+            jpql += " and o.status = :status";
+        }
+        return jpql;
+    }
+
+    /**
+     * 취소 가능한 주문 id (주문 상태, 아직 배송완료가 아님)
+     * 상태 확인을 SQL 에서 하고, 취소가 커밋될 때까지 다른 취소/배송완료 처리가 끼어들지 못하게 잠근다.
+     */
+    public List<Long> findCancellableIdsForUpdate(List<Long> orderIds) {
+        return em.createQuery(
+                "select o.id from Order o join o.delivery d" +
+                        " where o.id in :orderIds" +
+                        " and o.status = :status" +
+                        " and d.status <> :deliveryStatus", Long.class)
+                .setParameter("orderIds", orderIds)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("deliveryStatus", DeliveryStatus.COMP)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    // 엔티티를 조회하지 않고 update 한 번으로 상태만 바꾼다.
+    public int updateStatus(List<Long> orderIds, OrderStatus status) {
+        return em.createQuery("update Order o set o.status = :status where o.id in :orderIds")
+                .setParameter("status", status)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+    }
+
+    /**
+     * 주문들의 상품별 수량 합계 (상품 id -> 수량)
+     */
+    public Map<Long, Long> sumCountByItem(List<Long> orderIds) {
+        List<Object[]> rows = em.createQuery(
+                "select oi.item.id, sum(oi.count) from OrderItem oi" +
+                        " where oi.order.id in :orderIds" +
+                        " group by oi.item.id" +
+                        " order by oi.item.id", Object[].class) // 상품 update 순서를 고정해서 교착 상태를 피한다.
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+
+        Map<Long, Long> result = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            result.put((Long) row[0], (Long) row[1]);
+        }
+        return result;
+    }
+
+    /**
+     * 주문별 주문 시각과 주문 금액 ({orderDate, totalPrice})
+     */
+    public List<Object[]> findOrderDateAndTotalPrice(List<Long> orderIds) {
+        return em.createQuery(
+                "select o.orderDate, sum(oi.orderPrice * oi.count) from Order o join o.orderItems oi" +
+                        " where o.id in :orderIds" +
+                        " group by o.id, o.orderDate", Object[].class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
+
+    private void applyFetchPlan(TypedQuery<Order> query, OrderFetchPlan plan) {
+        if (plan.getEntityGraph() != null) {
+            // fetchgraph: 그래프에 없는 연관관계는 LAZY 로 취급한다.
+            query.setHint("javax.persistence.fetchgraph", em.getEntityGraph(plan.getEntityGraph()));
+        }
+    }
+
+    /**
+     * 회원 이름 검색(부분 일치)을 회원 id 목록으로 바꾼다.
+     * 이름 조건이 없거나 인덱스로 답할 수 없으면 null
+     */
+    private List<Long> findMemberIds(OrderSearch orderSearch) {
+        if (!StringUtils.hasText(orderSearch.getMemberName())) {
+            return null;
+        }
+        return memberNameSearch.findMemberIds(orderSearch.getMemberName());
+    }
+
+    private String searchCondition(OrderSearch orderSearch, List<Long> memberIds) {
+        String jpql = "";
+        boolean isFirstCondition = true;
 
         //주문 상태 검색
         if (orderSearch.getOrderStatus() != null) {
@@ -55,20 +234,35 @@ public class OrderRepository {
             } else {
                 jpql += " and";
             }
-            jpql += " m.name like :name";
+            // id 목록이 있으면 (member_id, order_date) 인덱스로 해당 회원의 주문만 읽는다.
+            // 이름 비교는 커밋 후 인덱스에 반영되기 전의 이전 이름으로 찾은 회원을 걸러낸다.
+            if (memberIds != null) {
+                jpql += " o.member.id in :memberIds and";
+            }
+            jpql += " lower(m.name) like :name escape '!'";
         }
+        return jpql;
+    }
 
-        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
-                .setMaxResults(1000);
-
+    private void bindSearchParameters(TypedQuery<?> query, OrderSearch orderSearch, List<Long> memberIds) {
         if (orderSearch.getOrderStatus() != null) {
-            query = query.setParameter("status", orderSearch.getOrderStatus());
+            query.setParameter("status", orderSearch.getOrderStatus());
         }
         if (StringUtils.hasText(orderSearch.getMemberName())) {
-            query = query.setParameter("name", orderSearch.getMemberName());
+            if (memberIds != null) {
+                query.setParameter("memberIds", memberIds);
+            }
+            query.setParameter("name", containsPattern(orderSearch.getMemberName()));
         }
+    }
 
-        return query.getResultList();
+    // 부분 일치, 대소문자 무시. 검색어의 % _ 는 문자 그대로 비교한다.
+    private static String containsPattern(String name) {
+        String escaped = name.trim().toLowerCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return "%" + escaped + "%";
     }
 
     // fetch join을 이용한 N+1 문제 해결
@@ -121,5 +315,28 @@ public class OrderRepository {
                 .setMaxResults(limit)
                 .getResultList();
     }
+
+    // offset 페이징은 앞의 row 를 모두 읽고 버리기 때문에 뒤 페이지로 갈수록 느려진다.
+    // 마지막으로 읽은 (orderDate, id) 이후부터 읽으면 (order_date, order_id) 인덱스를 타고 바로 시작 위치로 이동한다.
+    // ToOne 관계는 그대로 페치 조인, 컬렉션은 @BatchSize 로 가져온다.
+    public List<Order> findAllWithMemberDelivery(OrderCursor cursor, int limit) {
+        String jpql = "select o from Order o" +
+                " join fetch o.member m" +
+                " join fetch o.delivery d";
+        if (cursor != null) {
+            jpql += " where o.orderDate < :orderDate" +
+                    " or (o.orderDate = :orderDate and o.id < :id)";
+        }
+        jpql += " order by o.orderDate desc, o.id desc";
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class)
+                .setMaxResults(limit);
+
+        if (cursor != null) {
+            query.setParameter("orderDate", cursor.getOrderDate());
+            query.setParameter("id", cursor.getId());
+        }
+        return query.getResultList();
+    }
 }
 
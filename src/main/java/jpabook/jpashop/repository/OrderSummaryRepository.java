@@ -0,0 +1,72 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+
+    private final EntityManager em;
+
+    public void save(OrderSummary orderSummary) {
+        em.persist(orderSummary);
+    }
+
+    public OrderSummary findOne(Long orderId) {
+        return em.find(OrderSummary.class, orderId);
+    }
+
+    // 조회 없이 update 한 번으로 상태만 바꾼다.
+    public void updateStatus(Long orderId, OrderStatus status) {
+        em.createQuery("update OrderSummary s set s.status = :status where s.orderId = :orderId")
+                .setParameter("status", status)
+                .setParameter("orderId", orderId)
+                .executeUpdate();
+    }
+
+    public void updateStatus(List<Long> orderIds, OrderStatus status) {
+        em.createQuery("update OrderSummary s set s.status = :status where s.orderId in :orderIds")
+                .setParameter("status", status)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+    }
+
+    // 회원 이름이 바뀌면 그 회원의 주문 요약도 같은 트랜잭션에서 바꾼다.
+    public int updateMemberName(Long memberId, String memberName) {
+        return em.createQuery("update OrderSummary s set s.memberName = :memberName where s.memberId = :memberId")
+                .setParameter("memberName", memberName)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    public int deleteAll() {
+        return em.createQuery("delete from OrderSummary s")
+                .executeUpdate();
+    }
+
+    /**
+     * 주문 테이블에서 요약 테이블 전체를 다시 만든다.
+     * insert ... select 한 번으로 DB 안에서 처리한다.
+     */
+    public int insertAllFromOrders() {
+        return em.createNativeQuery(
+                "insert into order_summary (order_id, member_id, member_name, city, street, zipcode, status, order_date, item_count, total_price)" +
+                        " select o.order_id, m.member_id, m.name, d.city, d.street, d.zipcode, o.status, o.order_date," +
+                        " count(oi.order_item_id), coalesce(sum(oi.order_price * oi.count), 0)" +
+                        " from orders o" +
+                        " join member m on m.member_id = o.member_id" +
+                        " join delivery d on d.delivery_id = o.delivery_id" +
+                        " left join order_item oi on oi.order_id = o.order_id" +
+                        " group by o.order_id, m.member_id, m.name, d.city, d.street, d.zipcode, o.status, o.order_date")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(OrderSummary.class) // 지정하지 않으면 2차 캐시 전체가 비워진다.
+                .executeUpdate();
+    }
+}
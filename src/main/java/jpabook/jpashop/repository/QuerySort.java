@@ -0,0 +1,49 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.exception.InvalidSortException;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+
+/**
+ * 정렬 파라미터 "필드,방향" (ex. name,desc) 를 JPQL order by 절로 바꾼다.
+ * 허용한 필드만 사용하기 때문에 파라미터가 JPQL 에 그대로 들어가지 않는다.
+ * 같은 값이 있어도 페이지가 흔들리지 않도록 마지막에 id 로 한 번 더 정렬한다.
+ * 허용하지 않는 정렬이면 InvalidSortException (400)
+ */
+public class QuerySort {
+
+    private QuerySort() {
+    }
+
+    /**
+     * @param sort     요청 파라미터. 비어 있으면 defaultField 오름차순
+     * @param fields   허용 필드 -> JPQL 경로
+     * @param idPath   마지막 정렬 기준 (ex. i.id)
+     */
+    public static String orderBy(String sort, Map<String, String> fields, String defaultField, String idPath) {
+        String field = defaultField;
+        String direction = "asc";
+        if (StringUtils.hasText(sort)) {
+            String[] parts = sort.split(",");
+            field = parts[0].trim();
+            if (parts.length > 1) {
+                direction = parts[1].trim().toLowerCase();
+            }
+        }
+
+        String path = fields.get(field);
+        if (path == null) {
+            throw new InvalidSortException("정렬할 수 없는 필드입니다. sort=" + field);
+        }
+        if (!direction.equals("asc") && !direction.equals("desc")) {
+            throw new InvalidSortException("정렬 방향은 asc, desc 만 가능합니다. sort=" + sort);
+        }
+
+        String orderBy = " order by " + path + " " + direction;
+        if (!path.equals(idPath)) {
+            orderBy += ", " + idPath + " " + direction;
+        }
+        return orderBy;
+    }
+}
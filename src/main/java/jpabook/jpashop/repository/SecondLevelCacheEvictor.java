@@ -0,0 +1,56 @@
+package jpabook.jpashop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 2차 캐시에서 엔티티를 제거한다.
+ * 커밋 전에 지우면 다른 트랜잭션이 이전 값을 다시 캐시에 올릴 수 있기 때문에 커밋 후에 제거한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheEvictor {
+
+    private final EntityManagerFactory emf;
+
+    public void evictAfterCommit(Class<?> entityClass, Object id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            emf.getCache().evict(entityClass, id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                emf.getCache().evict(entityClass, id);
+            }
+        });
+    }
+
+    /**
+     * 네이티브 update 처럼 Hibernate 를 거치지 않고 바꾸는 row 에 엔티티 update 와 같은 2차 캐시 soft lock 을 건다.
+     * 커밋 후 제거만 하면, 커밋 전에 DB 에서 이전 값을 읽은 트랜잭션이 제거된 뒤에 그 값을 캐시에 다시 넣을 수 있다.
+     * 잠겨 있는 동안은 캐시를 읽지도 채우지도 않고, 잠금을 푼 뒤에도 그 전에 시작한 트랜잭션은 캐시를 채우지 못한다.
+     * update 전에 호출한다. 트랜잭션이 끝나면(커밋/롤백) 잠금을 푼다.
+     */
+    public void lockUntilCompletion(EntityManager em, Class<?> entityClass, Object id) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(entityClass);
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        Object key = cacheAccess.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+        SoftLock lock = cacheAccess.lockItem(session, key, null);
+        session.getActionQueue().registerProcess(
+                (success, completedSession) -> cacheAccess.unlockItem(completedSession, key, lock));
+    }
+}
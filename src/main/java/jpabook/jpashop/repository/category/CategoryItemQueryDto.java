@@ -0,0 +1,19 @@
+package jpabook.jpashop.repository.category;
+
+import lombok.Data;
+
+@Data
+public class CategoryItemQueryDto {
+
+    private Long itemId;
+    private String name;
+    private int price;
+    private int stockQuantity;
+
+    public CategoryItemQueryDto(Long itemId, String name, int price, int stockQuantity) {
+        this.itemId = itemId;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+    }
+}
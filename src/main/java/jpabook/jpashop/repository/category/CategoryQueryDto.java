@@ -0,0 +1,25 @@
+package jpabook.jpashop.repository.category;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class CategoryQueryDto {
+
+    private Long categoryId;
+    private String name;
+    @JsonIgnore
+    private Long parentId;
+    private int depth;
+    private List<CategoryQueryDto> children = new ArrayList<>();
+
+    public CategoryQueryDto(Long categoryId, String name, Long parentId, int depth) {
+        this.categoryId = categoryId;
+        this.name = name;
+        this.parentId = parentId;
+        this.depth = depth;
+    }
+}
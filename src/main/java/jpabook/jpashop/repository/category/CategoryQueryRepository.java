@@ -0,0 +1,85 @@
+package jpabook.jpashop.repository.category;
+
+import jpabook.jpashop.domain.Category;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 카테고리 트리 조회
+ * parent / child 를 따라 내려가면 노드마다 쿼리가 나간다. (재귀 N+1)
+ * 조상 id 경로(path) 접두사로 하위 트리 전체를 한 번에 찾기 때문에 트리 깊이, 노드 수와 상관없이 쿼리 수가 일정하다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CategoryQueryRepository {
+
+    private final EntityManager em;
+
+    /**
+     * 하위 트리 전체 (쿼리 2번)
+     */
+    public CategoryQueryDto findSubtree(Long categoryId) {
+        // c.parent.id 는 조인 없이 외래키 컬럼을 그대로 읽는다.
+        List<CategoryQueryDto> nodes = em.createQuery(
+                "select new jpabook.jpashop.repository.category.CategoryQueryDto(c.id, c.name, c.parent.id, c.depth)" +
+                        " from Category c" +
+                        " where c.id = :categoryId or c.path like :prefix" +
+                        " order by c.depth, c.id", CategoryQueryDto.class)
+                .setParameter("categoryId", categoryId)
+                .setParameter("prefix", descendantPathPrefix(categoryId) + "%")
+                .getResultList();
+
+        // depth 순서라서 부모가 항상 먼저 나온다. 메모리에서 트리로 조립한다.
+        Map<Long, CategoryQueryDto> nodeMap = new LinkedHashMap<>();
+        for (CategoryQueryDto node : nodes) {
+            nodeMap.put(node.getCategoryId(), node);
+            CategoryQueryDto parent = nodeMap.get(node.getParentId());
+            if (parent != null && !node.getCategoryId().equals(categoryId)) {
+                parent.getChildren().add(node);
+            }
+        }
+        return nodeMap.get(categoryId);
+    }
+
+    /**
+     * 카테고리와 모든 하위 카테고리에 속한 상품 (쿼리 2번)
+     * 여러 카테고리에 속한 상품도 한 번만 나온다.
+     */
+    public List<CategoryItemQueryDto> findItems(Long categoryId, int offset, int limit) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.category.CategoryItemQueryDto(i.id, i.name, i.price, i.stockQuantity)" +
+                        " from Item i" +
+                        " where i.id in (" +
+                        "select ci.id from Category c join c.items ci" +
+                        " where c.id = :categoryId or c.path like :prefix)" +
+                        " order by i.id", CategoryItemQueryDto.class)
+                .setParameter("categoryId", categoryId)
+                .setParameter("prefix", descendantPathPrefix(categoryId) + "%")
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public long countItems(Long categoryId) {
+        return em.createQuery(
+                "select count(distinct ci.id) from Category c join c.items ci" +
+                        " where c.id = :categoryId or c.path like :prefix", Long.class)
+                .setParameter("categoryId", categoryId)
+                .setParameter("prefix", descendantPathPrefix(categoryId) + "%")
+                .getSingleResult();
+    }
+
+    // 같은 영속성 컨텍스트에서는 두 번째 호출부터 쿼리가 나가지 않는다.
+    private String descendantPathPrefix(Long categoryId) {
+        Category category = em.find(Category.class, categoryId);
+        if (category == null) {
+            throw new IllegalArgumentException("카테고리가 없습니다. id=" + categoryId);
+        }
+        return category.getDescendantPathPrefix();
+    }
+}
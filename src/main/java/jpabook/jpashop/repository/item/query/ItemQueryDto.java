@@ -0,0 +1,19 @@
+package jpabook.jpashop.repository.item.query;
+
+import lombok.Data;
+
+@Data
+public class ItemQueryDto {
+
+    private Long id;
+    private String name;
+    private int price;
+    private int stockQuantity;
+
+    public ItemQueryDto(Long id, String name, int price, int stockQuantity) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+    }
+}
@@ -0,0 +1,52 @@
+package jpabook.jpashop.repository.item.query;
+
+import jpabook.jpashop.repository.QuerySort;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * 상품 목록 조회
+ * 화면에 필요한 컬럼만 DTO 로 조회한다. 엔티티가 아니라서 영속성 컨텍스트에 쌓이지 않고 변경 감지 대상도 아니다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ItemQueryRepository {
+
+    private static final Map<String, String> SORT_FIELDS = new HashMap<>();
+
+    static {
+        SORT_FIELDS.put("id", "i.id");
+        SORT_FIELDS.put("name", "i.name");
+        SORT_FIELDS.put("price", "i.price");
+        SORT_FIELDS.put("stockQuantity", "i.stockQuantity");
+    }
+
+    private final EntityManager em;
+
+    public List<ItemQueryDto> findItems(int offset, int limit, String sort) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.item.query.ItemQueryDto(i.id, i.name, i.price, i.stockQuantity)" +
+                        " from Item i" +
+                        QuerySort.orderBy(sort, SORT_FIELDS, "id", "i.id"), ItemQueryDto.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // 자동완성 인덱스 적재용. id, 이름만 forward-only 로 읽는다.
+    public void forEachIdName(BiConsumer<Long, String> consumer) {
+        try (Stream<Object[]> rows = em.createQuery("select i.id, i.name from Item i", Object[].class)
+                .setHint(QueryHints.FETCH_SIZE, 1000)
+                .getResultStream()) {
+            rows.forEach(row -> consumer.accept((Long) row[0], (String) row[1]));
+        }
+    }
+}
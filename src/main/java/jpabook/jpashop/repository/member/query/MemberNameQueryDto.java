@@ -0,0 +1,15 @@
+package jpabook.jpashop.repository.member.query;
+
+import lombok.Data;
+
+@Data
+public class MemberNameQueryDto {
+
+    private Long id;
+    private String name;
+
+    public MemberNameQueryDto(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+}
@@ -0,0 +1,21 @@
+package jpabook.jpashop.repository.member.query;
+
+import lombok.Data;
+
+@Data
+public class MemberQueryDto {
+
+    private Long id;
+    private String name;
+    private String city;
+    private String street;
+    private String zipcode;
+
+    public MemberQueryDto(Long id, String name, String city, String street, String zipcode) {
+        this.id = id;
+        this.name = name;
+        this.city = city;
+        this.street = street;
+        this.zipcode = zipcode;
+    }
+}
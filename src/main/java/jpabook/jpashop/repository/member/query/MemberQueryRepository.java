@@ -0,0 +1,62 @@
+package jpabook.jpashop.repository.member.query;
+
+import jpabook.jpashop.repository.QuerySort;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * 회원 목록 조회
+ * 화면/API 에 필요한 컬럼만 DTO 로 조회한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberQueryRepository {
+
+    private static final Map<String, String> SORT_FIELDS = new HashMap<>();
+
+    static {
+        SORT_FIELDS.put("id", "m.id");
+        SORT_FIELDS.put("name", "m.name");
+        SORT_FIELDS.put("city", "m.address.city");
+    }
+
+    private final EntityManager em;
+
+    public List<MemberQueryDto> findMembers(int offset, int limit, String sort) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.member.query.MemberQueryDto(m.id, m.name, m.address.city, m.address.street, m.address.zipcode)" +
+                        " from Member m" +
+                        QuerySort.orderBy(sort, SORT_FIELDS, "id", "m.id"), MemberQueryDto.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // 이름만 필요한 곳 (회원 선택, 이름 목록 API)
+    public List<MemberNameQueryDto> findMemberNames(int offset, int limit, String sort) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.member.query.MemberNameQueryDto(m.id, m.name)" +
+                        " from Member m" +
+                        QuerySort.orderBy(sort, SORT_FIELDS, "id", "m.id"), MemberNameQueryDto.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // 자동완성 인덱스 적재용. id, 이름만 forward-only 로 읽는다.
+    public void forEachIdName(BiConsumer<Long, String> consumer) {
+        try (Stream<Object[]> rows = em.createQuery("select m.id, m.name from Member m", Object[].class)
+                .setHint(QueryHints.FETCH_SIZE, 1000)
+                .getResultStream()) {
+            rows.forEach(row -> consumer.accept((Long) row[0], (String) row[1]));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package jpabook.jpashop.repository.order;
+
+import jpabook.jpashop.event.ItemChangedEvent;
+import jpabook.jpashop.event.MemberChangedEvent;
+import jpabook.jpashop.event.OrderChangedEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 주문 조회 DTO 결과 캐시
+ * 조회 결과는 주문/취소, 결과에 들어있는 회원 이름/상품 이름이 바뀔 때만 달라지기 때문에 그 변경이 커밋될 때 비운다.
+ * 캐시 이름이 쿼리, 키가 조회를 시작할 때의 데이터 버전(DataVersion)이다. (크기와 TTL 은 ehcache.xml)
+ * 비우기만으로는 부족하다. 커밋 전에 DB 를 읽은 요청이 비운 뒤에 이전 결과를 넣을 수 있는데,
+ * 그 결과는 이전 버전 키로 들어가기 때문에 버전이 오른 뒤의 요청(새 ETag)은 읽지 않는다.
+ */
+@Component
+public class OrderQueryCache {
+
+    public static final String ORDER_SIMPLE_QUERY_DTOS = "orderSimpleQueryDtos";
+    public static final String ORDER_QUERY_DTOS = "orderQueryDtos";
+    public static final String ORDER_QUERY_DTOS_WITH_ITEMS = "orderQueryDtosWithItems";
+
+    // @Cacheable(key = ...) 메서드를 실행하기 전에 계산된다.
+    public static final String VERSION_KEY = "@dataVersion.current()";
+
+    // 커밋 전에 비우면 다른 요청이 커밋 전 데이터로 캐시를 다시 채울 수 있다.
+    // 데이터 버전(DataVersion)을 올리기 전에 비운다. 반대 순서면 새 ETag 로 이전 캐시 결과를 내려줄 수 있다.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @CacheEvict(cacheNames = {ORDER_SIMPLE_QUERY_DTOS, ORDER_QUERY_DTOS, ORDER_QUERY_DTOS_WITH_ITEMS}, allEntries = true)
+    public void evict(OrderChangedEvent event) {
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @CacheEvict(cacheNames = {ORDER_SIMPLE_QUERY_DTOS, ORDER_QUERY_DTOS, ORDER_QUERY_DTOS_WITH_ITEMS}, allEntries = true)
+    public void evict(ItemChangedEvent event) {
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @CacheEvict(cacheNames = {ORDER_SIMPLE_QUERY_DTOS, ORDER_QUERY_DTOS, ORDER_QUERY_DTOS_WITH_ITEMS}, allEntries = true)
+    public void evict(MemberChangedEvent event) {
+    }
+}
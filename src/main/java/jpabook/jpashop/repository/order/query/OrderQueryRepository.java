@@ -1,12 +1,25 @@
 package jpabook.jpashop.repository.order.query;
 
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.OrderQueryCache;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
@@ -36,7 +49,9 @@ public class OrderQueryRepository {
                 .getResultList();
     }
 
-    private List<OrderQueryDto> findOrders() {
+    // 내부 호출(V4, V5)은 프록시를 거치지 않기 때문에 캐시되지 않는다. 결과에 orderItems 를 채워 넣기 때문에 캐시된 DTO 를 쓰면 안된다.
+    @Cacheable(cacheNames = OrderQueryCache.ORDER_QUERY_DTOS, key = OrderQueryCache.VERSION_KEY)
+    public List<OrderQueryDto> findOrders() {
         return em.createQuery(
                 "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
                         " from Order o" +
@@ -46,6 +61,8 @@ public class OrderQueryRepository {
     }
 
     // 쿼리 2번 1+1로 최적화
+    // 완성된 결과를 캐시한다. 반환한 뒤에는 변경하지 않는다.
+    @Cacheable(cacheNames = OrderQueryCache.ORDER_QUERY_DTOS_WITH_ITEMS, key = OrderQueryCache.VERSION_KEY)
     public List<OrderQueryDto> findAllByDto_optimization() {
         // 페치 조인보다 select 하는 데이터의 양이 적다.
         List<OrderQueryDto> result = findOrders();
@@ -57,6 +74,100 @@ public class OrderQueryRepository {
         return result;
     }
 
+    private static final String FLAT_ORDERS_SQL =
+            "select o.order_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode," +
+                    " oi.order_item_id, i.name item_name, oi.order_price, oi.count" +
+                    " from orders o" +
+                    " join member m on m.member_id = o.member_id" +
+                    " join delivery d on d.delivery_id = o.delivery_id" +
+                    " left join order_item oi on oi.order_id = o.order_id" +
+                    " left join item i on i.item_id = oi.item_id" +
+                    " order by o.order_id";
+
+    // 쿼리 1번. 주문/회원/배송/주문상품/상품을 한 번에 조인해서 평평한 row 로 가져온다.
+    // order_id 순으로 정렬되어 있기 때문에 order_id 가 바뀌는 지점에서 새 주문을 시작하면 된다.
+    // id 목록, groupingBy Map 없이 row 를 한 번만 훑으면서 조립한다.
+    // 데이터는 주문상품 수만큼 중복되어 넘어오므로 주문당 상품이 많으면 V5 가 더 유리할 수 있다.
+    public List<OrderQueryDto> findAllByDto_flat() {
+        // JDBC 로 직접 읽어서 row 마다 Object[] 를 만들지 않는다.
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            List<OrderQueryDto> result = new ArrayList<>();
+            try (PreparedStatement ps = connection.prepareStatement(FLAT_ORDERS_SQL)) {
+                ps.setFetchSize(1000);
+                try (ResultSet rs = ps.executeQuery()) {
+                    OrderQueryDto current = null;
+                    long currentOrderId = 0;
+                    while (rs.next()) {
+                        long orderId = rs.getLong(1);
+                        if (current == null || orderId != currentOrderId) {
+                            Timestamp orderDate = rs.getTimestamp(3);
+                            current = new OrderQueryDto(orderId, rs.getString(2),
+                                    orderDate == null ? null : orderDate.toLocalDateTime(),
+                                    OrderStatus.valueOf(rs.getString(4)),
+                                    new Address(rs.getString(5), rs.getString(6), rs.getString(7)));
+                            current.setOrderItems(new ArrayList<>(4));
+                            currentOrderId = orderId;
+                            result.add(current);
+                        }
+                        rs.getLong(8);
+                        if (!rs.wasNull()) { // 주문상품이 없는 주문
+                            current.getOrderItems().add(new OrderItemQueryDto(current.getOrderId(),
+                                    rs.getString(9), rs.getInt(10), rs.getInt(11)));
+                        }
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    // V5 와 같은 결과지만 주문 정보는 주문 요약 테이블 하나에서 읽는다. 조인은 OrderItem -> Item 만 남는다.
+    public List<OrderQueryDto> findAllByDto_summary() {
+        List<OrderQueryDto> result = em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderQueryDto(s.orderId, s.memberName, s.orderDate, s.status, s.address)" +
+                        " from OrderSummary s" +
+                        " order by s.orderDate desc, s.orderId desc", OrderQueryDto.class)
+                .getResultList();
+        if (!result.isEmpty()) {
+            fillOrderItems(result);
+        }
+        return result;
+    }
+
+    // 전체 내보내기용. 결과를 List 로 모으지 않고 chunk 단위로 넘겨준다.
+    // forward-only 커서로 주문을 읽고, chunk 마다 in 쿼리 1번으로 OrderItem 을 채운다.
+    // DTO 조회라 영속성 컨텍스트에도 쌓이지 않기 때문에 주문 수와 상관없이 메모리 사용량이 chunk 크기로 제한된다.
+    public void streamAllByDto_optimization(int chunkSize, Consumer<List<OrderQueryDto>> chunkConsumer) {
+        try (Stream<OrderQueryDto> orders = em.createQuery(
+                "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                        " from Order o" +
+                        " join o.member m" +
+                        " join o.delivery d", OrderQueryDto.class)
+                .setHint(QueryHints.FETCH_SIZE, chunkSize) // 드라이버가 한 번에 가져오는 row 수
+                .getResultStream()) {
+
+            List<OrderQueryDto> chunk = new ArrayList<>(chunkSize);
+            Iterator<OrderQueryDto> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize) {
+                    fillOrderItems(chunk);
+                    chunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                fillOrderItems(chunk);
+                chunkConsumer.accept(chunk);
+            }
+        }
+    }
+
+    private void fillOrderItems(List<OrderQueryDto> orders) {
+        Map<Long, List<OrderItemQueryDto>> orderItemMap = findOrderItemMap(toOrderIds(orders));
+        orders.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+    }
+
     private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
         // OrderItem을 한번에 조회
         List<OrderItemQueryDto> orderItems = em.createQuery(
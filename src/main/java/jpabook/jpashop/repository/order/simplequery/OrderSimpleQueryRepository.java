@@ -1,5 +1,7 @@
 package jpabook.jpashop.repository.order.simplequery;
 
+import jpabook.jpashop.repository.order.OrderQueryCache;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
@@ -17,6 +19,8 @@ public class OrderSimpleQueryRepository {
     // query service, query repository로 뽑아낸다.
     // 화면에 dependency 한 것을 애매하게 Repository 에 넣지 않는다.
 
+    // 대시보드에서 계속 호출하기 때문에 주문이 바뀔 때까지 결과를 캐시한다.
+    @Cacheable(cacheNames = OrderQueryCache.ORDER_SIMPLE_QUERY_DTOS, key = OrderQueryCache.VERSION_KEY)
     public List<OrderSimpleQueryDto> findOrderDtos() {
         // 서로 다른 형태이기 때문에 기본적으로 Dto에 매핑될 수 없다. new를 통해 해결한다.
         // jpql의 결과를 DTO로 직접 변환
@@ -28,4 +32,13 @@ public class OrderSimpleQueryRepository {
                                 " join o.delivery d", OrderSimpleQueryDto.class).
                 getResultList();
     }
+
+    // 주문 요약 테이블 하나만 읽는다. 조인 없이 (order_date, order_id) 인덱스 순서대로 읽는다.
+    public List<OrderSimpleQueryDto> findOrderDtosFromSummary() {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(s.orderId, s.memberName, s.orderDate, s.status, s.address)" +
+                                " from OrderSummary s" +
+                                " order by s.orderDate desc, s.orderId desc", OrderSimpleQueryDto.class)
+                .getResultList();
+    }
 }
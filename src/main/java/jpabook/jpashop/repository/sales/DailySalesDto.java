@@ -0,0 +1,21 @@
+package jpabook.jpashop.repository.sales;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class DailySalesDto {
+
+    private LocalDate salesDate;
+    private long orderCount; // 주문 수 (취소 포함)
+    private long cancelCount; // 취소 수
+    private long revenue; // 취소를 뺀 매출
+
+    public DailySalesDto(LocalDate salesDate, Long orderCount, Long cancelCount, Long revenue) {
+        this.salesDate = salesDate;
+        this.orderCount = orderCount;
+        this.cancelCount = cancelCount;
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,19 @@
+package jpabook.jpashop.repository.sales;
+
+import lombok.Data;
+
+@Data
+public class ItemSalesDto {
+
+    private Long itemId;
+    private String name;
+    private long quantity; // 판매 수량
+    private long revenue;
+
+    public ItemSalesDto(Long itemId, String name, Long quantity, Long revenue) {
+        this.itemId = itemId;
+        this.name = name;
+        this.quantity = quantity;
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,19 @@
+package jpabook.jpashop.repository.sales;
+
+import lombok.Data;
+
+@Data
+public class MemberSalesDto {
+
+    private Long memberId;
+    private String name;
+    private long orderCount;
+    private long revenue;
+
+    public MemberSalesDto(Long memberId, String name, Long orderCount, Long revenue) {
+        this.memberId = memberId;
+        this.name = name;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,53 @@
+package jpabook.jpashop.repository.sales;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 매출 집계 조회
+ * 엔티티를 올려서 Java 로 더하지 않고 DB 에서 sum / group by 한 결과만 가져온다.
+ * 기간은 [from, to) 이고 취소된 주문은 제외한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesQueryRepository {
+
+    private final EntityManager em;
+
+    public List<MemberSalesDto> findMemberSales(LocalDate from, LocalDate to) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.sales.MemberSalesDto(m.id, m.name, count(distinct o.id), sum(oi.orderPrice * oi.count))" +
+                        " from OrderItem oi" +
+                        " join oi.order o" +
+                        " join o.member m" +
+                        " where o.status = :status" +
+                        " and o.orderDate >= :from and o.orderDate < :to" +
+                        " group by m.id, m.name" +
+                        " order by sum(oi.orderPrice * oi.count) desc", MemberSalesDto.class)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("from", from.atStartOfDay())
+                .setParameter("to", to.atStartOfDay())
+                .getResultList();
+    }
+
+    public List<ItemSalesDto> findItemSales(LocalDate from, LocalDate to) {
+        return em.createQuery(
+                "select new jpabook.jpashop.repository.sales.ItemSalesDto(i.id, i.name, sum(oi.count), sum(oi.orderPrice * oi.count))" +
+                        " from OrderItem oi" +
+                        " join oi.order o" +
+                        " join oi.item i" +
+                        " where o.status = :status" +
+                        " and o.orderDate >= :from and o.orderDate < :to" +
+                        " group by i.id, i.name" +
+                        " order by sum(oi.orderPrice * oi.count) desc", ItemSalesDto.class)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("from", from.atStartOfDay())
+                .setParameter("to", to.atStartOfDay())
+                .getResultList();
+    }
+}
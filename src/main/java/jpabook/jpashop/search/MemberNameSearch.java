@@ -0,0 +1,72 @@
+package jpabook.jpashop.search;
+
+import jpabook.jpashop.repository.member.query.MemberQueryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * 주문 검색의 회원 이름 인덱스
+ * 회원 이름(부분 일치)을 먼저 회원 id 목록으로 바꾸고, 주문은 member_id in (...) 으로 조회한다.
+ * 가입/수정은 커밋된 뒤에 반영한다. 변경 전 값을 되돌리는 방식은 겹친 변경이 롤백되면 인덱스가 DB 와 달라진다.
+ * 커밋과 반영 사이에 남아 있는 이전 이름으로 찾은 id 는 주문 쿼리에서 이름을 한 번 더 확인하기 때문에 잘못 조회되지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberNameSearch {
+
+    private final MemberQueryRepository memberQueryRepository;
+    private final MemberSearchProperties memberSearchProperties;
+
+    private final TrigramIndex index = new TrigramIndex();
+    private volatile boolean ready; // 적재 전에는 인덱스로 답하지 않는다.
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        if (!memberSearchProperties.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        memberQueryRepository.forEachIdName(index::putIfAbsent);
+        ready = true;
+        log.info("member name search index warmed: {} members in {} ms",
+                index.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 이름에 name 이 들어있는 회원 id 목록
+     * @return 인덱스를 쓸 수 없거나 너무 많이 걸리면 null (호출한 쪽에서 like 로 조회)
+     */
+    public List<Long> findMemberIds(String name) {
+        if (!memberSearchProperties.isEnabled() || !ready) {
+            return null;
+        }
+        return index.search(name, memberSearchProperties.getMaxMemberIds());
+    }
+
+    // 롤백된 이름이 검색되지 않도록 커밋 후에 반영한다. (TypeaheadIndexes 와 같은 방식)
+    public void putAfterCommit(Long id, String name) {
+        if (!memberSearchProperties.isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            index.put(id, name);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                index.put(id, name);
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package jpabook.jpashop.search;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "jpashop.member-search")
+public class MemberSearchProperties {
+
+    private boolean enabled = true;
+    private int maxMemberIds = 1000; // 이보다 많은 회원이 걸리면 인덱스 대신 like 로 조회한다.
+}
@@ -0,0 +1,15 @@
+package jpabook.jpashop.search;
+
+import lombok.Getter;
+
+@Getter
+public class NameEntry {
+
+    private final Long id;
+    private final String name;
+
+    public NameEntry(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+}
@@ -0,0 +1,74 @@
+package jpabook.jpashop.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 이름 접두사 검색용 정렬 인덱스
+ * (소문자 이름, id) 순서로 정렬해 두고 접두사 위치부터 limit 개만 읽는다.
+ * 검색 비용은 O(log n + limit) 으로 전체 건수와 거의 무관하다.
+ * 락 없이 동시에 읽고 쓸 수 있다.
+ */
+public class NamePrefixIndex {
+
+    private static final char SEPARATOR = '\u0000'; // 이름에 들어가지 않는 가장 작은 문자
+
+    private final ConcurrentSkipListMap<String, NameEntry> sorted = new ConcurrentSkipListMap<>();
+    private final Map<Long, String> keys = new ConcurrentHashMap<>(); // id -> 정렬 키 (이름 변경 시 이전 키 삭제용)
+
+    public void put(Long id, String name) {
+        if (name == null) {
+            return;
+        }
+        String key = key(id, name);
+        String oldKey = keys.put(id, key);
+        if (oldKey != null && !oldKey.equals(key)) {
+            sorted.remove(oldKey);
+        }
+        sorted.put(key, new NameEntry(id, name));
+    }
+
+    // 시작 시 적재용. 이미 최신 값으로 바뀐 항목은 덮어쓰지 않는다.
+    public void putIfAbsent(Long id, String name) {
+        if (name == null) {
+            return;
+        }
+        String key = key(id, name);
+        if (keys.putIfAbsent(id, key) == null) {
+            sorted.put(key, new NameEntry(id, name));
+        }
+    }
+
+    public List<NameEntry> search(String prefix, int limit) {
+        String from = normalize(prefix);
+        // from 으로 시작하는 모든 키는 [from, from + Character.MAX_VALUE) 범위에 있다.
+        ConcurrentNavigableMap<String, NameEntry> range = sorted.subMap(from, true, from + Character.MAX_VALUE, false);
+
+        List<NameEntry> result = new ArrayList<>(Math.min(limit, 16));
+        for (NameEntry entry : range.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    private static String key(Long id, String name) {
+        // id 를 고정 길이로 붙여서 같은 이름도 id 순으로 정렬되게 한다.
+        return normalize(name) + SEPARATOR + String.format("%019d", id);
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,139 @@
+package jpabook.jpashop.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 이름 부분 일치 검색용 trigram 인덱스
+ * 이름을 3글자씩 잘라 (trigram -> id 목록) 으로 저장한다.
+ * 검색어의 trigram 중 id 가 가장 적은 목록만 후보로 보고, 실제 이름에 검색어가 들어있는지 확인한다.
+ * 3글자 미만 검색어는 trigram 이 없어서 전체 이름을 훑는다. (메모리에서라 DB 전체 스캔보다 싸다)
+ * 락 없이 동시에 읽고 쓸 수 있다.
+ */
+public class TrigramIndex {
+
+    private static final int N = 3;
+
+    private final Map<Long, String> names = new ConcurrentHashMap<>(); // id -> 정규화된 이름
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>(); // trigram -> id 목록
+
+    /**
+     * @return 이전 이름 (없으면 null)
+     */
+    public String put(Long id, String name) {
+        if (name == null) {
+            return null;
+        }
+        String normalized = normalize(name);
+        String old = names.put(id, normalized);
+        if (normalized.equals(old)) {
+            return old;
+        }
+        // 새 trigram 을 먼저 넣고 이전 trigram 을 지운다. 그 사이 검색은 이전/새 이름 모두로 찾힌다.
+        Set<String> grams = trigrams(normalized);
+        grams.forEach(gram -> addPosting(gram, id));
+        if (old != null) {
+            trigrams(old).stream()
+                    .filter(gram -> !grams.contains(gram))
+                    .forEach(gram -> removePosting(gram, id));
+        }
+        return old;
+    }
+
+    // 시작 시 적재용. 이미 최신 값으로 바뀐 항목은 덮어쓰지 않는다.
+    public void putIfAbsent(Long id, String name) {
+        if (name == null) {
+            return;
+        }
+        String normalized = normalize(name);
+        if (names.putIfAbsent(id, normalized) == null) {
+            trigrams(normalized).forEach(gram -> addPosting(gram, id));
+        }
+    }
+
+    public void remove(Long id) {
+        String old = names.remove(id);
+        if (old != null) {
+            trigrams(old).forEach(gram -> removePosting(gram, id));
+        }
+    }
+
+    /**
+     * 이름에 query 가 들어있는 id 목록 (대소문자 무시, id 순)
+     * @return maxResults 보다 많으면 null
+     */
+    public List<Long> search(String query, int maxResults) {
+        String q = normalize(query);
+        List<Long> result = new ArrayList<>();
+        if (q.length() < N) {
+            for (Map.Entry<Long, String> entry : names.entrySet()) {
+                if (entry.getValue().contains(q) && !add(result, entry.getKey(), maxResults)) {
+                    return null;
+                }
+            }
+        } else {
+            Set<Long> candidates = null;
+            for (String gram : trigrams(q)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Collections.emptyList(); // 이 trigram 을 가진 이름이 없다.
+                }
+                if (candidates == null || ids.size() < candidates.size()) {
+                    candidates = ids;
+                }
+            }
+            for (Long id : candidates) {
+                String name = names.get(id);
+                if (name != null && name.contains(q) && !add(result, id, maxResults)) {
+                    return null;
+                }
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    private static boolean add(List<Long> result, Long id, int maxResults) {
+        result.add(id);
+        return result.size() <= maxResults;
+    }
+
+    private void addPosting(String gram, Long id) {
+        postings.compute(gram, (key, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    private void removePosting(String gram, Long id) {
+        postings.computeIfPresent(gram, (key, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids; // 빈 목록은 지운다.
+        });
+    }
+
+    private static Set<String> trigrams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + N <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + N));
+        }
+        return grams;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
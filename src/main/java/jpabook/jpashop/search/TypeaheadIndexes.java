@@ -0,0 +1,85 @@
+package jpabook.jpashop.search;
+
+import jpabook.jpashop.repository.item.query.ItemQueryRepository;
+import jpabook.jpashop.repository.member.query.MemberQueryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 주문 화면 회원/상품 자동완성 인덱스
+ * 시작 시 DB 에서 한 번 적재하고, 이후에는 가입/상품 등록/수정이 커밋된 뒤에 반영한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TypeaheadIndexes {
+
+    private final MemberQueryRepository memberQueryRepository;
+    private final ItemQueryRepository itemQueryRepository;
+    private final TypeaheadProperties typeaheadProperties;
+
+    private final NamePrefixIndex members = new NamePrefixIndex();
+    private final NamePrefixIndex items = new NamePrefixIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        if (!typeaheadProperties.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        memberQueryRepository.forEachIdName(members::putIfAbsent);
+        itemQueryRepository.forEachIdName(items::putIfAbsent);
+        log.info("typeahead indexes warmed: {} members, {} items in {} ms",
+                members.size(), items.size(), System.currentTimeMillis() - start);
+    }
+
+    public List<NameEntry> searchMembers(String prefix, int limit) {
+        return search(members, prefix, limit);
+    }
+
+    public List<NameEntry> searchItems(String prefix, int limit) {
+        return search(items, prefix, limit);
+    }
+
+    public void putMemberAfterCommit(Long id, String name) {
+        afterCommit(members, id, name);
+    }
+
+    public void putItemAfterCommit(Long id, String name) {
+        afterCommit(items, id, name);
+    }
+
+    private List<NameEntry> search(NamePrefixIndex index, String prefix, int limit) {
+        if (!typeaheadProperties.isEnabled() || prefix == null || prefix.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return index.search(prefix, Math.min(Math.max(limit, 1), typeaheadProperties.getMaxResults()));
+    }
+
+    // 롤백된 변경이 검색되지 않도록 커밋 후에 반영한다.
+    private void afterCommit(NamePrefixIndex index, Long id, String name) {
+        if (!typeaheadProperties.isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            index.put(id, name);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                index.put(id, name);
+            }
+        });
+    }
+}
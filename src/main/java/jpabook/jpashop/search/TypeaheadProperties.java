@@ -0,0 +1,15 @@
+package jpabook.jpashop.search;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "jpashop.typeahead")
+public class TypeaheadProperties {
+
+    private boolean enabled = true;
+    private int maxResults = 10; // 요청당 최대 결과 수
+}
@@ -0,0 +1,276 @@
+package jpabook.jpashop.seed;
+
+import jpabook.jpashop.domain.DeliveryStatus;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 운영 규모 재현용 대량 데이터 적재
+ * em.persist 는 엔티티 하나마다 insert(+ 시퀀스 조회)를 하기 때문에 수백만 건을 넣을 수 없다.
+ * id 를 미리 정해두고 여러 스레드에서 각자의 범위를 JDBC batch insert 로 넣는다.
+ * 적재가 끝나면 엔티티별 시퀀스를 적재한 id 뒤로 옮긴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BulkDataSeeder {
+
+    private static final String[] CITIES = {"서울", "부산", "대구", "인천", "광주", "대전", "울산", "진주"};
+    private static final int ROOT_CATEGORIES = 10;
+    private static final int STOCK_QUANTITY = 1_000_000;
+
+    private final DataSource dataSource;
+
+    public void seed(SeedProperties props) {
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(props.getThreads());
+        try {
+            parallel("member", executor, props.getMembers(), props, this::insertMembers);
+            insertCategories(props);
+            parallel("item", executor, props.getItems(), props, this::insertItems);
+            parallel("order", executor, props.getOrders(), props, this::insertOrders);
+            restartSequences(props);
+        } finally {
+            executor.shutdown();
+        }
+        log.info("seed finished in {} ms", System.currentTimeMillis() - start);
+    }
+
+    private void insertMembers(Connection con, long from, long to, SplittableRandom random, SeedProperties props) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+                "insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)")) {
+            for (long id = from; id <= to; id++) {
+                ps.setLong(1, id);
+                ps.setString(2, "member" + id); // 회원 이름은 중복될 수 없다.
+                setAddress(ps, 3, id);
+                ps.addBatch();
+                if ((id - from + 1) % props.getBatchSize() == 0) {
+                    ps.executeBatch();
+                    con.commit();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    // 개수가 적고 부모 카테고리가 먼저 들어가야 하기 때문에 한 스레드에서 순서대로 넣는다.
+    // 최상위 카테고리 10개 아래에 나머지를 나눠 붙인다.
+    private void insertCategories(SeedProperties props) {
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(
+                     "insert into category (category_id, name, parent_id, path, depth) values (?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= props.getCategories(); id++) {
+                ps.setLong(1, id);
+                ps.setString(2, "category" + id);
+                if (id <= ROOT_CATEGORIES) {
+                    ps.setNull(3, Types.BIGINT);
+                    ps.setString(4, "/");
+                    ps.setInt(5, 0);
+                } else {
+                    ps.setLong(3, parentCategoryId(id));
+                    ps.setString(4, "/" + parentCategoryId(id) + "/");
+                    ps.setInt(5, 1);
+                }
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        } catch (SQLException e) {
+            throw new IllegalStateException("데이터 적재에 실패했습니다. [category]", e);
+        }
+    }
+
+    private void insertItems(Connection con, long from, long to, SplittableRandom random, SeedProperties props) throws SQLException {
+        try (PreparedStatement item = con.prepareStatement(
+                "insert into item (dtype, item_id, name, price, stock_quantity, version, artist, etc, author, isbn, director, actor)" +
+                        " values (?, ?, ?, ?, ?, 0, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement categoryItem = con.prepareStatement(
+                     "insert into category_item (category_id, item_id) values (?, ?)")) {
+            for (long id = from; id <= to; id++) {
+                // Album, Book, Movie 를 골고루
+                String dtype = id % 3 == 0 ? "A" : id % 3 == 1 ? "B" : "M";
+                item.setString(1, dtype);
+                item.setLong(2, id);
+                item.setString(3, dtype + "-item" + id);
+                item.setInt(4, itemPrice(id));
+                item.setInt(5, STOCK_QUANTITY);
+                item.setString(6, "A".equals(dtype) ? "artist" + id : null);
+                item.setString(7, "A".equals(dtype) ? "etc" + id : null);
+                item.setString(8, "B".equals(dtype) ? "author" + id : null);
+                item.setString(9, "B".equals(dtype) ? "isbn" + id : null);
+                item.setString(10, "M".equals(dtype) ? "director" + id : null);
+                item.setString(11, "M".equals(dtype) ? "actor" + id : null);
+                item.addBatch();
+
+                if (props.getCategories() > 0) {
+                    categoryItem.setLong(1, 1 + id % props.getCategories());
+                    categoryItem.setLong(2, id);
+                    categoryItem.addBatch();
+                }
+
+                if ((id - from + 1) % props.getBatchSize() == 0) {
+                    item.executeBatch();
+                    categoryItem.executeBatch();
+                    con.commit();
+                }
+            }
+            item.executeBatch();
+            categoryItem.executeBatch();
+        }
+    }
+
+    private void insertOrders(Connection con, long from, long to, SplittableRandom random, SeedProperties props) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        long periodSeconds = props.getDays() * 24L * 60 * 60;
+
+        try (PreparedStatement delivery = con.prepareStatement(
+                "insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)");
+             PreparedStatement order = con.prepareStatement(
+                     "insert into orders (order_id, member_id, delivery_id, order_date, status) values (?, ?, ?, ?, ?)");
+             PreparedStatement orderItem = con.prepareStatement(
+                     "insert into order_item (order_item_id, order_id, item_id, order_price, count) values (?, ?, ?, ?, ?)")) {
+
+            for (long id = from; id <= to; id++) {
+                long memberId = skewed(random, props.getMembers(), props.getMemberSkew());
+                // 배송완료 10%, 배송완료되지 않은 주문 중 취소 5%
+                boolean delivered = random.nextInt(10) == 0;
+                boolean canceled = !delivered && random.nextInt(20) == 0;
+
+                delivery.setLong(1, id);
+                setAddress(delivery, 2, memberId);
+                delivery.setString(5, (delivered ? DeliveryStatus.COMP : DeliveryStatus.READY).name());
+                delivery.addBatch();
+
+                order.setLong(1, id);
+                order.setLong(2, memberId);
+                order.setLong(3, id);
+                order.setTimestamp(4, Timestamp.valueOf(now.minusSeconds(random.nextLong(periodSeconds))));
+                order.setString(5, (canceled ? OrderStatus.CANCEL : OrderStatus.ORDER).name());
+                order.addBatch();
+
+                int itemCount = 1 + random.nextInt(props.getMaxItemsPerOrder());
+                for (int i = 0; i < itemCount; i++) {
+                    long itemId = skewed(random, props.getItems(), props.getItemSkew());
+                    // 주문마다 maxItemsPerOrder 개의 id 를 예약해둔다.
+                    orderItem.setLong(1, (id - 1) * props.getMaxItemsPerOrder() + i + 1);
+                    orderItem.setLong(2, id);
+                    orderItem.setLong(3, itemId);
+                    orderItem.setInt(4, itemPrice(itemId));
+                    orderItem.setInt(5, 1 + random.nextInt(3));
+                    orderItem.addBatch();
+                }
+
+                if ((id - from + 1) % props.getBatchSize() == 0) {
+                    // FK 순서대로 실행
+                    delivery.executeBatch();
+                    order.executeBatch();
+                    orderItem.executeBatch();
+                    con.commit();
+                }
+            }
+            delivery.executeBatch();
+            order.executeBatch();
+            orderItem.executeBatch();
+        }
+    }
+
+    private void restartSequences(SeedProperties props) {
+        try (Connection con = dataSource.getConnection();
+             Statement statement = con.createStatement()) {
+            restartSequence(statement, "member_seq", props.getMembers());
+            restartSequence(statement, "item_seq", props.getItems());
+            restartSequence(statement, "category_seq", props.getCategories());
+            restartSequence(statement, "delivery_seq", props.getOrders());
+            restartSequence(statement, "orders_seq", props.getOrders());
+            restartSequence(statement, "order_item_seq", (long) props.getOrders() * props.getMaxItemsPerOrder());
+        } catch (SQLException e) {
+            throw new IllegalStateException("시퀀스를 변경할 수 없습니다.", e);
+        }
+    }
+
+    private static void restartSequence(Statement statement, String sequenceName, long maxId) throws SQLException {
+        statement.execute("alter sequence " + sequenceName + " restart with " + (maxId + 1));
+    }
+
+    /**
+     * [from, to] 범위를 스레드 수만큼 나눠서 각자의 커넥션으로 넣는다.
+     */
+    private void parallel(String name, ExecutorService executor, long total, SeedProperties props, RangeWriter writer) {
+        long start = System.currentTimeMillis();
+        int threads = props.getThreads();
+        long chunk = (total + threads - 1) / threads;
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int worker = 0; worker < threads; worker++) {
+            long from = worker * chunk + 1;
+            long to = Math.min(total, (worker + 1) * chunk);
+            if (from > to) {
+                break;
+            }
+            // 같은 설정이면 항상 같은 데이터가 만들어진다.
+            SplittableRandom random = new SplittableRandom(props.getRandomSeed() * 31 + name.hashCode() + worker);
+            futures.add(executor.submit(() -> {
+                try (Connection con = dataSource.getConnection()) {
+                    con.setAutoCommit(false);
+                    writer.write(con, from, to, random, props);
+                    con.commit();
+                }
+                return null;
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("데이터 적재가 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("데이터 적재에 실패했습니다. [" + name + "]", e.getCause());
+        }
+        log.info("seed {}: {} rows in {} ms", name, total, System.currentTimeMillis() - start);
+    }
+
+    // 0 ~ 1 의 균등 분포를 skew 제곱해서 앞쪽 id 로 몰리게 한다.
+    private static long skewed(SplittableRandom random, int size, double skew) {
+        return 1 + Math.min(size - 1, (long) (size * Math.pow(random.nextDouble(), skew)));
+    }
+
+    private static long parentCategoryId(long id) {
+        return 1 + (id - 1) % ROOT_CATEGORIES;
+    }
+
+    private static int itemPrice(long itemId) {
+        return 1000 + (int) (itemId % 100) * 500;
+    }
+
+    // 회원과 배송 주소는 회원 id 로 정해진다.
+    private static void setAddress(PreparedStatement ps, int index, long memberId) throws SQLException {
+        ps.setString(index, CITIES[(int) (memberId % CITIES.length)]);
+        ps.setString(index + 1, "street" + memberId);
+        ps.setString(index + 2, String.format("%05d", memberId % 100_000));
+    }
+
+    @FunctionalInterface
+    private interface RangeWriter {
+        void write(Connection con, long from, long to, SplittableRandom random, SeedProperties props) throws SQLException;
+    }
+}
@@ -0,0 +1,29 @@
+package jpabook.jpashop.seed;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "jpashop.seed")
+public class SeedProperties {
+
+    private boolean enabled = false;
+
+    private int members = 100_000;
+    private int items = 10_000;
+    private int categories = 100;
+    private int orders = 1_000_000;
+    private int maxItemsPerOrder = 3; // 주문당 주문상품 1 ~ N개
+    private int days = 365; // 주문일시 분포 기간
+
+    // 1 이면 균등 분포, 클수록 앞쪽 id 에 몰린다. (인기 상품, 주문이 많은 회원)
+    private double memberSkew = 2.0;
+    private double itemSkew = 3.0;
+
+    private int threads = 4; // 커넥션 풀 크기보다 작아야 한다.
+    private int batchSize = 1000;
+    private long randomSeed = 42;
+}
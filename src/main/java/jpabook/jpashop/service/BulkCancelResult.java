@@ -0,0 +1,12 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BulkCancelResult {
+
+    private int requested; // 요청(검색)된 주문 수
+    private int cancelled; // 실제로 취소된 주문 수 (나머지는 이미 취소됐거나 배송완료)
+}
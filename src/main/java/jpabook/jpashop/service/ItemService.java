@@ -1,8 +1,12 @@
 package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.event.ItemChangedEvent;
 import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.SecondLevelCacheEvictor;
+import jpabook.jpashop.search.TypeaheadIndexes;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,10 +18,15 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final TypeaheadIndexes typeaheadIndexes;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void saveItem(Item item) {
         itemRepository.save(item);
+        typeaheadIndexes.putItemAfterCommit(item.getId(), item.getName());
+        eventPublisher.publishEvent(new ItemChangedEvent(item.getId()));
     }
 
     @Transactional
@@ -26,6 +35,9 @@ public class ItemService {
         item.setName(name);
         item.setPrice(price);
         item.setStockQuantity(stockQuantity);
+        cacheEvictor.evictAfterCommit(Item.class, itemId);
+        typeaheadIndexes.putItemAfterCommit(itemId, name);
+        eventPublisher.publishEvent(new ItemChangedEvent(itemId));
     }
 
     public List<Item> findItems() {
@@ -0,0 +1,110 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.MemberRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 회원 이름 Bloom filter
+ * "없다" 고 하면 확실히 없는 이름이라서 중복 확인 쿼리를 생략할 수 있다.
+ * "있을 수도 있다" 고 하면 DB 에서 다시 확인한다.
+ * 중복의 최종 판단은 member.name unique 제약조건이 한다.
+ */
+@Slf4j
+@Component
+public class MemberNameFilter {
+
+    private final MemberRepository memberRepository;
+    private final boolean enabled;
+    private final AtomicLongArray bits;
+    private final int bitCount;
+    private final int hashCount;
+
+    // 시작 시 전체 이름을 넣기 전까지는 항상 "있을 수도 있다" 로 답한다.
+    private volatile boolean ready;
+
+    public MemberNameFilter(MemberRepository memberRepository, MemberProperties memberProperties) {
+        MemberProperties.BloomFilter props = memberProperties.getBloomFilter();
+        this.memberRepository = memberRepository;
+        this.enabled = props.isEnabled();
+
+        // m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long n = Math.max(1, props.getExpectedNames());
+        long m = (long) Math.ceil(-n * Math.log(props.getFalsePositiveRate()) / (Math.log(2) * Math.log(2)));
+        int words = enabled ? (int) Math.min(Integer.MAX_VALUE / 64, (m + 63) / 64) : 1;
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long count = memberRepository.forEachName(this::put);
+        ready = true;
+        log.info("member name bloom filter warmed: {} names, {} bits, {} hashes in {} ms",
+                count, bitCount, hashCount, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * false 면 확실히 없는 이름이다.
+     */
+    public boolean mightContain(String name) {
+        if (!enabled || !ready || name == null) {
+            return true;
+        }
+        long hash = hash(name);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = bitIndex(hash, i);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 롤백된 가입의 이름이 남아도 오탐이 조금 늘어날 뿐이다.
+    public void put(String name) {
+        if (!enabled || name == null) {
+            return;
+        }
+        long hash = hash(name);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = bitIndex(hash, i);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0
+                    && !bits.compareAndSet(word, current, current | mask)) {
+                // 다른 스레드가 같은 word 를 바꿨으면 다시 시도
+            }
+        }
+    }
+
+    // 상위/하위 32bit 를 두 개의 해시로 사용한다. (double hashing)
+    private int bitIndex(long hash, int i) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1; // 0 이면 모든 해시가 같은 bit 를 가리킨다.
+        return ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+    }
+
+    // 64bit FNV-1a
+    private static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,21 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "jpashop.member")
+public class MemberProperties {
+
+    private final BloomFilter bloomFilter = new BloomFilter();
+
+    @Getter @Setter
+    public static class BloomFilter {
+        private boolean enabled = false;
+        private int expectedNames = 1_000_000; // 예상 회원 수. 넘어서면 오탐률이 올라간다.
+        private double falsePositiveRate = 0.01; // 오탐이면 DB 를 한 번 더 확인할 뿐이다.
+    }
+}
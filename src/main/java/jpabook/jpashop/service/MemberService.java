@@ -1,8 +1,15 @@
 package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.event.MemberChangedEvent;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.repository.SecondLevelCacheEvictor;
+import jpabook.jpashop.search.MemberNameSearch;
+import jpabook.jpashop.search.TypeaheadIndexes;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +21,12 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final MemberNameFilter memberNameFilter;
+    private final TypeaheadIndexes typeaheadIndexes;
+    private final MemberNameSearch memberNameSearch;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 회원 가입
@@ -22,13 +35,25 @@ public class MemberService {
     public Long join(Member member) {
 
         validateDuplicateMember(member); //중복 회원 검증
-        memberRepository.save(member);
+        try {
+            memberRepository.saveAndFlush(member);
+        } catch (DataIntegrityViolationException e) {
+            // 동시에 같은 이름으로 가입한 경우. 검증을 통과해도 unique 제약조건에서 걸린다.
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        memberNameFilter.put(member.getName());
+        typeaheadIndexes.putMemberAfterCommit(member.getId(), member.getName());
+        memberNameSearch.putAfterCommit(member.getId(), member.getName());
+        eventPublisher.publishEvent(new MemberChangedEvent(member.getId()));
         return member.getId();
     }
 
     private void validateDuplicateMember(Member member) {
-        List<Member> findMembers = memberRepository.findByName(member.getName());
-        if (!findMembers.isEmpty()) {
+        // Bloom filter 에 없으면 처음 보는 이름이라 조회하지 않는다.
+        if (!memberNameFilter.mightContain(member.getName())) {
+            return;
+        }
+        if (memberRepository.existsByName(member.getName())) {
             throw new IllegalStateException("이미 존재하는 회원입니다.");
         }
     }
@@ -49,7 +74,13 @@ public class MemberService {
     public void update(Long id, String name) {
         Member member = memberRepository.findOne(id); // 영속성 context에서 가져옴.
         member.setName(name); // name 값 변경.
+        orderSummaryRepository.updateMemberName(id, name); // 주문 요약의 회원 이름 (주문 수만큼 update 1번)
+        memberNameFilter.put(name);
+        typeaheadIndexes.putMemberAfterCommit(id, name);
+        memberNameSearch.putAfterCommit(id, name);
+        eventPublisher.publishEvent(new MemberChangedEvent(id));
         // transaction이 종료되고 commit되는 시점에서 JPA가 변경감지 실행 -> update 쿼리 전송
+        cacheEvictor.evictAfterCommit(Member.class, id); // 커밋 후 2차 캐시에서 제거
     }
 
 }
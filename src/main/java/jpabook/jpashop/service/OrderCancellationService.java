@@ -0,0 +1,72 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderSearch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * 주문 일괄 취소
+ * 주문을 cancelChunkSize 개씩 나눠서 chunk 마다 트랜잭션 하나로 취소한다.
+ * 한 트랜잭션이 너무 많은 행을 잠그거나 오래 걸리지 않도록 트랜잭션 밖에서 OrderService 를 호출한다.
+ * 중간에 실패하면 이미 커밋된 chunk 는 취소된 상태로 남는다. (다시 요청하면 남은 주문만 취소된다)
+ * 되돌릴 수 없는 작업이라 대상이 maxBulkCancel 개를 넘으면 하나도 취소하지 않고 IllegalArgumentException
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderCancellationService {
+
+    private final OrderService orderService;
+    private final OrderProperties orderProperties;
+
+    public BulkCancelResult cancel(List<Long> orderIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(orderIds)); // 중복 제거
+        checkLimit(ids.size());
+        int chunkSize = orderProperties.getCancelChunkSize();
+
+        int cancelled = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = new ArrayList<>(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            cancelled += orderService.cancelOrders(chunk);
+        }
+        return new BulkCancelResult(ids.size(), cancelled);
+    }
+
+    /**
+     * 이름이 정확히 일치하는 회원의 주문을 id 순으로 chunk 씩 읽으면서 취소한다. (orderStatus 는 추가 조건)
+     */
+    public BulkCancelResult cancel(OrderSearch orderSearch) {
+        String memberName = orderSearch.getMemberName().trim();
+        OrderStatus status = orderSearch.getOrderStatus();
+        checkLimit(orderService.countOrdersByMemberName(memberName, status));
+        int chunkSize = orderProperties.getCancelChunkSize();
+
+        int requested = 0;
+        int cancelled = 0;
+        Long afterId = null;
+        while (true) {
+            List<Long> chunk = orderService.findOrderIdsByMemberName(memberName, status, afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            requested += chunk.size();
+            cancelled += orderService.cancelOrders(chunk);
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1);
+        }
+        return new BulkCancelResult(requested, cancelled);
+    }
+
+    private void checkLimit(long count) {
+        int max = orderProperties.getMaxBulkCancel();
+        if (count > max) {
+            throw new IllegalArgumentException("취소 대상 주문이 " + count + "건으로 최대 " + max + "건을 넘습니다. 조건을 좁혀 주세요.");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 주문 전체 내보내기
+     * chunk 를 읽을 때마다 바로 응답으로 써서 전체 목록을 메모리에 올리지 않는다.
+     * ndjson 이면 한 줄에 주문 하나, 아니면 JSON 배열로 쓴다.
+     */
+    public void exportOrders(OutputStream out, boolean ndjson) throws IOException {
+        // 값 하나마다 flush 하지 않고 chunk 단위로 flush 한다.
+        ObjectWriter writer = objectMapper.writerFor(OrderQueryDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (SequenceWriter sequenceWriter = ndjson
+                ? writer.withRootValueSeparator("\n").writeValues(out)
+                : writer.writeValuesAsArray(out)) {
+
+            orderQueryRepository.streamAllByDto_optimization(CHUNK_SIZE, chunk -> {
+                try {
+                    sequenceWriter.writeAll(chunk);
+                    sequenceWriter.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 접수 대기열 (group commit)
+ * 요청 스레드는 주문을 대기열에 넣고 결과를 기다린다.
+ * writer 스레드 하나가 주문을 모아서(maxBatchSize 개 또는 maxLinger 동안) 한 트랜잭션으로 저장한다.
+ * 주문마다 커밋하지 않기 때문에 커밋 횟수가 DB 처리량의 한계가 되지 않는다.
+ * 기다리다 시간이 초과돼도 이미 배치에 들어간 주문은 저장될 수 있다. 주문 키(orderKey)로 다시 요청하면
+ * 새로 주문하지 않고 처음 주문의 결과를 기다린다. (최근 idempotencyKeys 개의 키만 기억한다)
+ * writer 스레드는 컨텍스트가 시작될 때 띄우고, 종료될 때 대기 중인 주문을 처리한 뒤 멈춘다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "jpashop.order.intake", name = "enabled", havingValue = "true")
+public class OrderIntakeQueue implements SmartLifecycle {
+
+    private static final long POLL_MILLIS = 100; // 종료 여부 확인 간격
+
+    private final OrderService orderService;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final long timeoutMillis;
+    private final int maxRetries;
+
+    private final BlockingQueue<Pending> queue;
+    private final Map<String, Pending> recentOrders; // 주문 키 -> 주문 (오래된 것부터 버린다)
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public OrderIntakeQueue(OrderService orderService, OrderProperties orderProperties) {
+        OrderProperties.Intake intake = orderProperties.getIntake();
+        this.orderService = orderService;
+        this.maxBatchSize = intake.getMaxBatchSize();
+        this.maxLingerNanos = intake.getMaxLinger().toNanos();
+        this.timeoutMillis = intake.getTimeout().toMillis();
+        this.maxRetries = orderProperties.getMaxRetries();
+        this.queue = new ArrayBlockingQueue<>(intake.getQueueCapacity());
+        int idempotencyKeys = intake.getIdempotencyKeys();
+        this.recentOrders = new LinkedHashMap<String, Pending>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Pending> eldest) {
+                return size() > idempotencyKeys;
+            }
+        };
+    }
+
+    /**
+     * 주문하고 배치가 커밋될 때까지 기다린다.
+     * 재고가 부족하면 NotEnoughStockException
+     */
+    public Long order(Long memberId, Long itemId, int count) {
+        CompletableFuture<Long> future = submit(new OrderRequest(memberId, itemId, count));
+        try {
+            return await(future);
+        } catch (TimeoutException e) {
+            // 실패로 응답한 주문이 나중에 저장되지 않도록 취소한다. 아직 대기열에 있으면 writer 가 버린다.
+            // (이미 저장 중인 배치에 들어간 주문은 취소되지 않는다. 다시 요청해도 안전해야 하면 주문 키를 사용한다)
+            future.cancel(false);
+            throw new IllegalStateException("주문 처리 시간이 초과되었습니다.", e);
+        }
+    }
+
+    /**
+     * 주문 키로 주문한다. 같은 키로 다시 요청하면 새로 주문하지 않고 처음 주문의 결과를 기다린다.
+     * 처음 주문이 실패(재고 부족 등)로 끝났으면 저장된 것이 없기 때문에 다시 주문한다.
+     */
+    public Long order(String orderKey, Long memberId, Long itemId, int count) {
+        Pending pending;
+        synchronized (recentOrders) {
+            pending = recentOrders.get(orderKey);
+            if (pending == null || pending.future.isCompletedExceptionally()) {
+                pending = enqueue(new OrderRequest(memberId, itemId, count));
+                recentOrders.put(orderKey, pending);
+            }
+        }
+        try {
+            return await(pending.future);
+        } catch (TimeoutException e) {
+            // 취소하지 않는다. 저장 여부는 같은 키로 다시 요청해서 확인한다.
+            throw new IllegalStateException("주문 처리 시간이 초과되었습니다. 같은 주문 키로 다시 요청하면 처리 결과를 받습니다.", e);
+        }
+    }
+
+    public CompletableFuture<Long> submit(OrderRequest request) {
+        return enqueue(request).future;
+    }
+
+    private Pending enqueue(OrderRequest request) {
+        if (!running) {
+            throw new IllegalStateException("주문 접수가 종료되었습니다.");
+        }
+        Pending pending = new Pending(request);
+        if (!queue.offer(pending)) {
+            throw new IllegalStateException("주문 접수 대기열이 가득 찼습니다.");
+        }
+        return pending;
+    }
+
+    private Long await(CompletableFuture<Long> future) throws TimeoutException {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("주문 처리를 기다리는 중 중단되었습니다.", e);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "order-intake-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        Thread current = writer;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable e) {
+                // writer 는 하나뿐이라 여기서 멈추면 이후 주문이 모두 시간 초과된다. 이 배치만 실패시키고 계속한다.
+                log.error("order intake batch failed", e);
+                fail(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+        // 종료 중 남은 주문은 실패 처리한다.
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        fail(rest, new IllegalStateException("주문 접수가 종료되었습니다."));
+    }
+
+    // 첫 주문 이후 maxLinger 동안 maxBatchSize 개까지 더 모은다.
+    private void fill(List<Pending> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxLingerNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                queue.drainTo(batch, maxBatchSize - batch.size()); // 이미 와 있는 주문은 담는다.
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void process(List<Pending> pendings) {
+        // 기다리다 시간 초과로 취소된 주문은 저장하지 않는다.
+        List<Pending> batch = pendings.stream()
+                .filter(pending -> !pending.future.isDone())
+                .collect(Collectors.toList());
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<OrderRequest> requests = batch.stream()
+                .map(pending -> pending.request)
+                .collect(Collectors.toList());
+
+        int retries = 0;
+        while (true) {
+            try {
+                List<Long> orderIds = orderService.orderAll(requests); // 커밋 후 반환
+                for (int i = 0; i < batch.size(); i++) {
+                    Long orderId = orderIds.get(i);
+                    if (orderId == null) {
+                        batch.get(i).future.completeExceptionally(new NotEnoughStockException("need more stock"));
+                    } else {
+                        batch.get(i).future.complete(orderId);
+                    }
+                }
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                // 배치 밖(주문 취소 등)에서 같은 상품의 재고가 바뀌었다. 최신 재고로 다시 시도한다.
+                if (++retries > maxRetries) {
+                    fail(batch, e);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                if (batch.size() == 1) {
+                    fail(batch, e);
+                    return;
+                }
+                // 잘못된 주문 하나(없는 회원/상품 등) 때문에 배치 전체가 롤백됐다. 하나씩 다시 처리해서 나머지는 저장한다.
+                for (Pending pending : batch) {
+                    process(Collections.singletonList(pending));
+                }
+                return;
+            }
+        }
+    }
+
+    private static void fail(List<Pending> batch, Throwable cause) {
+        for (Pending pending : batch) {
+            pending.future.completeExceptionally(cause);
+        }
+    }
+
+    private static final class Pending {
+        private final OrderRequest request;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        Pending(OrderRequest request) {
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.service.OrderProperties.StockMode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+/**
+ * 주문 접수
+ * 재시도는 매번 새 트랜잭션이어야 하기 때문에 트랜잭션 밖에서 OrderService 를 호출한다.
+ * 주문 접수 대기열을 켜면(jpashop.order.intake.enabled) 대기열에 넣고 배치 커밋을 기다린다.
+ * 주문 키가 있으면 대기열은 같은 키의 다시 요청을 새 주문으로 만들지 않는다. (시간 초과 후 재시도)
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderPlacementService {
+
+    private final OrderService orderService;
+    private final OrderProperties orderProperties;
+    private final ObjectProvider<OrderIntakeQueue> orderIntakeQueue;
+
+    public Long order(String orderKey, Long memberId, Long itemId, int count) {
+        OrderIntakeQueue intakeQueue = orderIntakeQueue.getIfAvailable();
+        if (intakeQueue != null && orderKey != null) {
+            return intakeQueue.order(orderKey, memberId, itemId, count);
+        }
+        return order(memberId, itemId, count);
+    }
+
+    public Long order(Long memberId, Long itemId, int count) {
+        OrderIntakeQueue intakeQueue = orderIntakeQueue.getIfAvailable();
+        if (intakeQueue != null) {
+            return intakeQueue.order(memberId, itemId, count);
+        }
+
+        if (orderProperties.getStockMode() != StockMode.OPTIMISTIC) {
+            return orderService.order(memberId, itemId, count);
+        }
+
+        int retries = 0;
+        while (true) {
+            try {
+                return orderService.order(memberId, itemId, count);
+            } catch (OptimisticLockingFailureException e) {
+                // 다른 주문이 먼저 재고를 변경했다. 최신 재고로 다시 시도한다.
+                if (++retries > orderProperties.getMaxRetries()) {
+                    throw e;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "jpashop.order")
+public class OrderProperties {
+
+    private StockMode stockMode = StockMode.ENTITY;
+    // OPTIMISTIC 모드에서 버전 충돌 시 재시도 횟수
+    private int maxRetries = 3;
+    // 일괄 취소에서 한 트랜잭션으로 처리할 주문 수
+    private int cancelChunkSize = 500;
+    // 일괄 취소 요청 하나로 취소할 수 있는 최대 주문 수 (넘으면 아무것도 취소하지 않고 거절한다)
+    private int maxBulkCancel = 1000;
+
+    private final Intake intake = new Intake();
+
+    public enum StockMode {
+        ENTITY, // 엔티티의 재고를 변경하고 변경 감지로 update (충돌 시 예외)
+        CONDITIONAL_UPDATE, // update ... where stock >= n 한 번으로 차감
+        OPTIMISTIC // 엔티티 변경 + @Version 충돌 시 재시도
+    }
+
+    // 주문 접수 대기열 (OrderIntakeQueue)
+    @Getter @Setter
+    public static class Intake {
+        private boolean enabled = false;
+        private int queueCapacity = 10_000; // 가득 차면 바로 실패한다.
+        private int maxBatchSize = 100; // 한 트랜잭션에 담을 최대 주문 수
+        private Duration maxLinger = Duration.ofMillis(5); // 첫 주문 이후 배치를 채우려고 기다리는 최대 시간
+        private Duration timeout = Duration.ofSeconds(5); // 요청 스레드가 결과를 기다리는 최대 시간
+        private int idempotencyKeys = 100_000; // 다시 요청을 알아보기 위해 기억하는 최근 주문 키 수
+    }
+}
@@ -0,0 +1,20 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+/**
+ * 주문 요청 (주문 접수 대기열에서 배치로 처리)
+ */
+@Getter
+public class OrderRequest {
+
+    private final Long memberId;
+    private final Long itemId;
+    private final int count;
+
+    public OrderRequest(Long memberId, Long itemId, int count) {
+        this.memberId = memberId;
+        this.itemId = itemId;
+        this.count = count;
+    }
+}
@@ -2,15 +2,26 @@ package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.event.OrderChangedEvent;
+import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderFetchPlan;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.service.OrderProperties.StockMode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional(readOnly = true)
@@ -20,6 +31,10 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final SalesService salesService;
+    private final OrderProperties orderProperties;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 주문
@@ -27,6 +42,12 @@ public class OrderService {
     @Transactional
     public Long order(Long memberId, Long itemId, int count) {
 
+        //재고 차감 (조건부 update)
+        boolean stockReserved = orderProperties.getStockMode() == StockMode.CONDITIONAL_UPDATE;
+        if (stockReserved && !itemRepository.removeStock(itemId, count)) {
+            throw new NotEnoughStockException("need more stock");
+        }
+
         //엔티티 조회
         Member member = memberRepository.findOne(memberId);
         Item item = itemRepository.findOne(itemId);
@@ -37,7 +58,9 @@ public class OrderService {
         delivery.setStatus(DeliveryStatus.READY);
 
         //주문상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        OrderItem orderItem = stockReserved
+                ? OrderItem.createReservedOrderItem(item, item.getPrice(), count)
+                : OrderItem.createOrderItem(item, item.getPrice(), count);
 
         //주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
@@ -45,9 +68,62 @@ public class OrderService {
         //주문 저장
         orderRepository.save(order);
 
+        //주문 요약 저장 (같은 트랜잭션)
+        orderSummaryRepository.save(OrderSummary.from(order));
+        //일별 매출 집계
+        salesService.recordOrder(order.getOrderDate().toLocalDate(), itemId, order.getTotalPrice());
+
+        eventPublisher.publishEvent(new OrderChangedEvent(order.getId()));
         return order.getId();
     }
 
+    /**
+     * 여러 주문을 한 트랜잭션으로 (주문 접수 대기열의 배치)
+     * 재고는 배치 안에서 영속성 컨텍스트의 상품으로 확인/차감하고, 커밋 시 상품마다 update 한 번으로 반영된다.
+     * 주문/배송/주문상품/요약 insert 는 JDBC batch 로, 일별 매출은 날짜마다 update 한 번으로 반영한다.
+     * @return 요청 순서대로 주문 id. 재고가 부족한 요청은 null (나머지 주문은 그대로 저장된다)
+     */
+    @Transactional
+    public List<Long> orderAll(List<OrderRequest> requests) {
+        List<Long> orderIds = new ArrayList<>(requests.size());
+        Map<LocalDate, long[]> dailySales = new LinkedHashMap<>(); // 날짜 -> {주문 수, 금액}
+
+        for (OrderRequest request : requests) {
+            //엔티티 조회 (같은 회원/상품은 영속성 컨텍스트에서 꺼낸다)
+            Member member = memberRepository.findOne(request.getMemberId());
+            Item item = itemRepository.findOne(request.getItemId());
+
+            //앞선 주문이 차감한 재고 기준으로 확인
+            if (item.getStockQuantity() < request.getCount()) {
+                orderIds.add(null);
+                continue;
+            }
+
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+            delivery.setStatus(DeliveryStatus.READY);
+
+            OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), request.getCount());
+            Order order = Order.createOrder(member, delivery, orderItem);
+
+            orderRepository.save(order);
+            orderSummaryRepository.save(OrderSummary.from(order));
+
+            long[] sales = dailySales.computeIfAbsent(order.getOrderDate().toLocalDate(), date -> new long[2]);
+            sales[0]++;
+            sales[1] += order.getTotalPrice();
+            orderIds.add(order.getId());
+        }
+
+        dailySales.forEach((date, sales) -> salesService.recordOrders(date, (int) sales[0], sales[1]));
+        for (Long orderId : orderIds) {
+            if (orderId != null) {
+                eventPublisher.publishEvent(new OrderChangedEvent(orderId));
+            }
+        }
+        return orderIds;
+    }
+
     /**
      * 주문 취소
      */
@@ -57,10 +133,57 @@ public class OrderService {
         Order order = orderRepository.findOne(orderId);
         //주문 취소
         order.cancel();
+        //주문 요약 상태 변경
+        orderSummaryRepository.updateStatus(orderId, OrderStatus.CANCEL);
+        //주문일의 매출에서 제외
+        salesService.recordCancel(order.getOrderDate().toLocalDate(),
+                order.getOrderItems().get(0).getItem().getId(), order.getTotalPrice());
+
+        eventPublisher.publishEvent(new OrderChangedEvent(orderId));
+    }
+
+    /**
+     * 주문 일괄 취소 (chunk 하나, 트랜잭션 하나)
+     * 주문/배송 상태는 SQL 에서 확인하고 주문 상태는 벌크 update 로 바꾼다.
+     * 되돌릴 재고는 상품별로 합쳐서 상품마다 update 한 번, 일별 매출은 주문일마다 update 한 번으로 반영한다.
+     * @return 취소된 주문 수 (이미 취소됐거나 배송완료된 주문은 건너뛴다)
+     */
+    @Transactional
+    public int cancelOrders(List<Long> orderIds) {
+        List<Long> cancellable = orderRepository.findCancellableIdsForUpdate(orderIds);
+        if (cancellable.isEmpty()) {
+            return 0;
+        }
+
+        Map<LocalDate, long[]> dailyCancels = new LinkedHashMap<>(); // 주문일 -> {취소 수, 금액}
+        for (Object[] row : orderRepository.findOrderDateAndTotalPrice(cancellable)) {
+            long[] cancels = dailyCancels.computeIfAbsent(((LocalDateTime) row[0]).toLocalDate(), date -> new long[2]);
+            cancels[0]++;
+            cancels[1] += (Long) row[1];
+        }
+
+        orderRepository.updateStatus(cancellable, OrderStatus.CANCEL);
+        orderSummaryRepository.updateStatus(cancellable, OrderStatus.CANCEL);
+        orderRepository.sumCountByItem(cancellable).forEach(itemRepository::addStock);
+        dailyCancels.forEach((date, cancels) -> salesService.recordCancels(date, (int) cancels[0], cancels[1]));
+
+        for (Long orderId : cancellable) {
+            eventPublisher.publishEvent(new OrderChangedEvent(orderId));
+        }
+        return cancellable.size();
+    }
+
+    public List<Long> findOrderIdsByMemberName(String memberName, OrderStatus status, Long afterId, int limit) {
+        return orderRepository.findIdsByMemberName(memberName, status, afterId, limit);
+    }
+
+    public long countOrdersByMemberName(String memberName, OrderStatus status) {
+        return orderRepository.countByMemberName(memberName, status);
     }
 
     //검색
     public List<Order> findOrders(OrderSearch orderSearch) {
-        return orderRepository.findAllByString(orderSearch);
+        // 주문 목록 화면은 회원, 주문상품, 상품 이름까지 보여준다.
+        return orderRepository.findAll(orderSearch, OrderFetchPlan.ALL, 0, 1000);
     }
 }
@@ -0,0 +1,29 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderSummaryService {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+
+    /**
+     * 주문 요약 테이블 재생성
+     * 주문/취소 외의 경로로 주문 데이터가 바뀐 경우(대량 적재, 수동 수정) 사용한다.
+     */
+    @Transactional
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        orderSummaryRepository.deleteAll();
+        int count = orderSummaryRepository.insertAllFromOrders();
+        log.info("order_summary rebuilt: {} rows in {} ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+}
@@ -0,0 +1,128 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.DailySales;
+import jpabook.jpashop.repository.DailySalesRepository;
+import jpabook.jpashop.repository.sales.DailySalesDto;
+import jpabook.jpashop.repository.sales.ItemSalesDto;
+import jpabook.jpashop.repository.sales.MemberSalesDto;
+import jpabook.jpashop.repository.sales.SalesQueryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class SalesService {
+
+    private final SalesQueryRepository salesQueryRepository;
+    private final DailySalesRepository dailySalesRepository;
+    private final TransactionTemplate newTransaction;
+
+    public SalesService(SalesQueryRepository salesQueryRepository,
+                        DailySalesRepository dailySalesRepository,
+                        PlatformTransactionManager transactionManager) {
+        this.salesQueryRepository = salesQueryRepository;
+        this.dailySalesRepository = dailySalesRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public List<MemberSalesDto> findMemberSales(LocalDate from, LocalDate to) {
+        return salesQueryRepository.findMemberSales(from, to);
+    }
+
+    public List<ItemSalesDto> findItemSales(LocalDate from, LocalDate to) {
+        return salesQueryRepository.findItemSales(from, to);
+    }
+
+    public List<DailySalesDto> findDailySales(LocalDate from, LocalDate to) {
+        return dailySalesRepository.findBetween(from, to);
+    }
+
+    /**
+     * 주문 금액을 일별 집계에 더한다. 주문과 같은 트랜잭션에서 호출한다.
+     * 상품마다 정해진 row(slot) 에 더하기 때문에 다른 상품의 주문끼리는 커밋될 때까지 서로 기다리지 않는다.
+     */
+    @Transactional
+    public void recordOrder(LocalDate salesDate, Long itemId, long amount) {
+        addOrders(salesDate, DailySales.slotOf(itemId), 1, amount);
+    }
+
+    /**
+     * 여러 주문을 한 번에 더한다. (주문 접수 대기열의 배치)
+     */
+    @Transactional
+    public void recordOrders(LocalDate salesDate, int orderCount, long amount) {
+        addOrders(salesDate, randomSlot(), orderCount, amount);
+    }
+
+    /**
+     * 취소된 주문 금액을 주문일의 일별 집계에서 뺀다.
+     */
+    @Transactional
+    public void recordCancel(LocalDate salesDate, Long itemId, long amount) {
+        addCancels(salesDate, DailySales.slotOf(itemId), 1, amount);
+    }
+
+    /**
+     * 같은 날 주문한 여러 취소를 한 번에 뺀다. (일괄 취소)
+     */
+    @Transactional
+    public void recordCancels(LocalDate salesDate, int cancelCount, long amount) {
+        addCancels(salesDate, randomSlot(), cancelCount, amount);
+    }
+
+    private void addOrders(LocalDate salesDate, int slot, int orderCount, long amount) {
+        if (dailySalesRepository.addOrders(salesDate, slot, orderCount, amount) == 0) {
+            createDay(salesDate, slot);
+            dailySalesRepository.addOrders(salesDate, slot, orderCount, amount);
+        }
+    }
+
+    private void addCancels(LocalDate salesDate, int slot, int cancelCount, long amount) {
+        if (dailySalesRepository.addCancels(salesDate, slot, cancelCount, amount) == 0) {
+            createDay(salesDate, slot);
+            dailySalesRepository.addCancels(salesDate, slot, cancelCount, amount);
+        }
+    }
+
+    // 배치는 상품이 여러 개라 아무 row 에나 더한다.
+    private static int randomSlot() {
+        return ThreadLocalRandom.current().nextInt(DailySales.SLOTS);
+    }
+
+    // 하루에 한 번, 그 날 slot 의 첫 주문이 빈 row 를 만든다.
+    // 주문 트랜잭션 안에서 insert 하면 동시에 들어온 첫 주문끼리 키 충돌로 주문이 실패하기 때문에 별도 트랜잭션으로 커밋한다.
+    private void createDay(LocalDate salesDate, int slot) {
+        try {
+            newTransaction.execute(status -> {
+                dailySalesRepository.save(new DailySales(salesDate, slot));
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // 다른 주문이 먼저 만들었다.
+            log.debug("daily_sales row already created: {} slot {}", salesDate, slot);
+        }
+    }
+
+    /**
+     * 일별 집계 재생성
+     */
+    @Transactional
+    public int rebuildDailySales() {
+        long start = System.currentTimeMillis();
+        dailySalesRepository.deleteAll();
+        int count = dailySalesRepository.insertAllFromOrders();
+        log.info("daily_sales rebuilt: {} rows in {} ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+}
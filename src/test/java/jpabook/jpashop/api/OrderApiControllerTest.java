@@ -0,0 +1,161 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.event.OrderChangedEvent;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OrderApiControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ApplicationEventPublisher eventPublisher;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderService orderService;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @Test
+    public void 커서페이징_limit_범위밖이면_400() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "1001"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 오프셋페이징_범위밖이면_400() throws Exception {
+        mockMvc.perform(get("/api/v3.1/orders").param("offset", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.1/orders").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.1/orders").param("limit", "1001"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.1/orders").param("offset", "0").param("limit", "1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void 커서페이징_잘못된커서면_400() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("cursor", "not-a-cursor!"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v3.2/orders").param("cursor", "bm9waXBl")) // "nopipe"
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 커서페이징_정상() throws Exception {
+        mockMvc.perform(get("/api/v3.2/orders").param("limit", "1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void 주문목록_변경이_없으면_304() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/v5/orders"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v5/orders").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // 형식이 다르면 다른 표현이다.
+        mockMvc.perform(get("/api/v5/orders").header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept("application/x-jackson-smile"))
+                .andExpect(status().isOk());
+
+        // 주문 변경 (트랜잭션 밖에서 발행하면 바로 반영된다)
+        eventPublisher.publishEvent(new OrderChangedEvent(0L));
+
+        mockMvc.perform(get("/api/v5/orders").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void Smile_응답은_JSON_과_같은_내용이다() throws Exception {
+        createOrder();
+        String json = getOrdersAsJson();
+
+        MvcResult smile = mockMvc.perform(get("/api/v5/orders").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-jackson-smile"))
+                .andReturn();
+
+        assertTrue(smile.getResponse().getHeader(HttpHeaders.ETAG).endsWith("-smile\""));
+        assertEquals(json, decode(new ObjectMapper(new SmileFactory()), smile));
+    }
+
+    @Test
+    public void CBOR_응답은_JSON_과_같은_내용이다() throws Exception {
+        createOrder();
+        String json = getOrdersAsJson();
+
+        // smile 이 먼저 쓰였지만 q 값이 낮아서 CBOR 로 응답한다. ETag 도 CBOR 여야 한다.
+        MvcResult cbor = mockMvc.perform(get("/api/v5/orders")
+                        .header(HttpHeaders.ACCEPT, "application/x-jackson-smile;q=0.1, application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        assertTrue(cbor.getResponse().getHeader(HttpHeaders.ETAG).endsWith("-cbor\""));
+        assertEquals(json, decode(new ObjectMapper(new CBORFactory()), cbor));
+    }
+
+    private String getOrdersAsJson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v5/orders").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertTrue(result.getResponse().getHeader(HttpHeaders.ETAG).endsWith("-json\""));
+        return jsonMapper.writeValueAsString(jsonMapper.readTree(result.getResponse().getContentAsByteArray()));
+    }
+
+    // 숫자 타입(int/long) 차이 없이 비교하도록 JSON 으로 다시 쓴다.
+    private String decode(ObjectMapper mapper, MvcResult result) throws Exception {
+        return jsonMapper.writeValueAsString(mapper.readTree(result.getResponse().getContentAsByteArray()));
+    }
+
+    private void createOrder() {
+        Member member = new Member();
+        member.setName("형식회원" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        memberService.join(member);
+
+        Book book = new Book();
+        book.setName("형식 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+
+        orderService.order(member.getId(), book.getId(), 1);
+    }
+}
@@ -0,0 +1,94 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OrderCancelAdminControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+
+    @Test
+    public void 조건이_없으면_400() throws Exception {
+        cancel("{}").andExpect(status().isBadRequest());
+        cancel("{\"orderIds\": []}").andExpect(status().isBadRequest());
+        cancel("{\"search\": {}}").andExpect(status().isBadRequest());
+        cancel("{\"search\": {\"memberName\": \"  \"}}").andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 주문상태만으로는_취소하지_않는다() throws Exception {
+        cancel("{\"search\": {\"orderStatus\": \"ORDER\"}}").andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 회원이름은_정확히_일치해야_취소한다() throws Exception {
+        //given
+        Long orderId = orderService.order(createMember("a부분일치" + System.nanoTime()), createBook("부분일치 JPA"), 1);
+
+        //when
+        cancel("{\"search\": {\"memberName\": \"a\"}}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(0))
+                .andExpect(jsonPath("$.cancelled").value(0));
+
+        //then
+        assertEquals("이름에 a 가 들어간 회원의 주문은 그대로다.", OrderStatus.ORDER, orderRepository.findOne(orderId).getStatus());
+    }
+
+    @Test
+    public void 없는_주문은_취소되지_않는다() throws Exception {
+        cancel("{\"orderIds\": [-1]}")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(1))
+                .andExpect(jsonPath("$.cancelled").value(0));
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Long createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+
+    private ResultActions cancel(String body) throws Exception {
+        return mockMvc.perform(post("/api/admin/orders/cancel")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+}
@@ -0,0 +1,56 @@
+package jpabook.jpashop.controller;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PagingTest {
+
+    @Autowired MockMvc mockMvc;
+
+    @Test
+    public void 허용하지_않는_정렬이면_400() throws Exception {
+        mockMvc.perform(get("/api/v2/members").param("sort", "password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v2/members").param("sort", "name,up"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members").param("sort", "password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items").param("sort", "price,up"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void offset_limit_범위밖이면_400() throws Exception {
+        mockMvc.perform(get("/api/v2/members").param("offset", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v2/members").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v2/members").param("limit", String.valueOf(Paging.MAX_LIMIT + 1)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members").param("limit", "100000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items").param("offset", "-20"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/order").param("limit", "100000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void 범위_안이면_정상() throws Exception {
+        mockMvc.perform(get("/api/v2/members").param("limit", String.valueOf(Paging.MAX_LIMIT)).param("sort", "name,desc"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items").param("offset", "0").param("limit", "1").param("sort", "price"))
+                .andExpect(status().isOk());
+    }
+}
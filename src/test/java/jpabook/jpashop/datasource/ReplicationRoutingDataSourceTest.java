@@ -0,0 +1,122 @@
+package jpabook.jpashop.datasource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * 서로 다른 임베디드 H2 두 개를 primary/replica 로 두고 어느 쪽에서 읽었는지 확인한다.
+ */
+public class ReplicationRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+
+    @Before
+    public void setUp() {
+        primary = createDatabase("routing_primary", "primary");
+        replica = createDatabase("routing_replica", "replica");
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        new JdbcTemplate(primary).execute("drop table marker");
+        new JdbcTemplate(replica).execute("drop table marker");
+    }
+
+    @Test
+    public void readOnly_트랜잭션은_replica() {
+        DataSource routing = routing(1, Duration.ZERO);
+
+        assertEquals("replica", read(routing, true));
+        assertEquals("쓰기 트랜잭션은 primary", "primary", read(routing, false));
+    }
+
+    @Test
+    public void replica_가_없으면_primary() {
+        DataSource routing = routing(0, Duration.ZERO);
+
+        assertEquals("primary", read(routing, true));
+    }
+
+    @Test
+    public void 쓰기_커밋_후에는_같은_세션의_읽기도_primary() {
+        DataSource routing = routing(1, Duration.ofMinutes(1));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        assertEquals("쓰기 전에는 replica", "replica", read(routing, true));
+
+        write(routing, false);
+        assertEquals("쓰기 커밋 후에는 primary", "primary", read(routing, true));
+
+        // 다른 세션은 영향을 받지 않는다.
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertEquals("replica", read(routing, true));
+    }
+
+    @Test
+    public void 쓰기가_롤백되면_replica_유지() {
+        DataSource routing = routing(1, Duration.ofMinutes(1));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        write(routing, true);
+
+        assertEquals("replica", read(routing, true));
+    }
+
+    // RoutingDataSourceConfig 와 같은 구성 (replica 는 replicaCount 개 모두 같은 DB)
+    private DataSource routing(int replicaCount, Duration stickyWindow) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicationRoutingDataSource.PRIMARY, primary);
+        for (int i = 0; i < replicaCount; i++) {
+            targets.put(ReplicationRoutingDataSource.REPLICA_PREFIX + i, replica);
+        }
+
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(replicaCount, new ReadYourWrites(stickyWindow));
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private String read(DataSource routing, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> new JdbcTemplate(routing).queryForObject("select name from marker", String.class));
+    }
+
+    private void write(DataSource routing, boolean rollback) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        transaction.executeWithoutResult(status -> {
+            new JdbcTemplate(routing).update("update marker set name = name");
+            if (rollback) {
+                status.setRollbackOnly();
+            }
+        });
+    }
+
+    private static DataSource createDatabase(String name, String marker) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table marker (name varchar(20))");
+        jdbcTemplate.update("insert into marker values (?)", marker);
+        return dataSource;
+    }
+}
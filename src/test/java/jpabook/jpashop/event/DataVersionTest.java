@@ -0,0 +1,119 @@
+package jpabook.jpashop.event;
+
+import jpabook.jpashop.repository.order.OrderQueryCache;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.*;
+
+/**
+ * 트랜잭션마다 커밋/롤백되어야 하기 때문에 @Transactional 을 붙이지 않는다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class DataVersionTest {
+
+    @Autowired DataVersion dataVersion;
+    @Autowired ApplicationEventPublisher eventPublisher;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired CacheManager cacheManager;
+    @Autowired AfterCommitProbe probe;
+
+    TransactionTemplate transactionTemplate;
+
+    @Before
+    public void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        probe.reset();
+    }
+
+    @Test
+    public void 커밋되면_버전이_오른다() {
+        long before = dataVersion.current();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new OrderChangedEvent(1L));
+            assertEquals("커밋 전에는 그대로", before, dataVersion.current());
+        });
+
+        assertEquals(before + 1, dataVersion.current());
+    }
+
+    @Test
+    public void 롤백되면_버전이_그대로다() {
+        long before = dataVersion.current();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new OrderChangedEvent(1L));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(before, dataVersion.current());
+    }
+
+    @Test
+    public void 캐시를_비운_뒤에_버전을_올린다() {
+        Cache cache = cacheManager.getCache(OrderQueryCache.ORDER_SIMPLE_QUERY_DTOS);
+        cache.put("probe", "stale");
+        long before = dataVersion.current();
+
+        transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(new OrderChangedEvent(1L)));
+
+        // 캐시 비우기(가장 먼저)와 버전 올리기(가장 마지막) 사이에 실행된 리스너가 본 상태
+        assertTrue(probe.called);
+        assertNull("이미 캐시가 비워져 있어야 한다.", probe.cachedValue);
+        assertEquals("아직 버전이 오르지 않았어야 한다.", before, probe.version);
+        assertEquals(before + 1, dataVersion.current());
+    }
+
+    @TestConfiguration
+    static class ProbeConfig {
+        @Bean
+        AfterCommitProbe afterCommitProbe(DataVersion dataVersion, CacheManager cacheManager) {
+            return new AfterCommitProbe(dataVersion, cacheManager);
+        }
+    }
+
+    static class AfterCommitProbe {
+        private final DataVersion dataVersion;
+        private final CacheManager cacheManager;
+
+        volatile boolean called;
+        volatile Object cachedValue;
+        volatile long version;
+
+        AfterCommitProbe(DataVersion dataVersion, CacheManager cacheManager) {
+            this.dataVersion = dataVersion;
+            this.cacheManager = cacheManager;
+        }
+
+        void reset() {
+            called = false;
+            cachedValue = null;
+            version = 0;
+        }
+
+        @Order(0)
+        @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+        public void onOrderChanged(OrderChangedEvent event) {
+            Cache.ValueWrapper value = cacheManager.getCache(OrderQueryCache.ORDER_SIMPLE_QUERY_DTOS).get("probe");
+            cachedValue = value != null ? value.get() : null;
+            version = dataVersion.current();
+            called = true;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package jpabook.jpashop.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class SqlAuditLoggerTest {
+
+    private final List<String> lines = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void 샘플링_0_이면_느린_SQL_만_남긴다() {
+        SqlAuditLogger logger = new SqlAuditLogger(properties(0.0, 100), lines::add);
+
+        execute(logger, "select fast", 10);
+        execute(logger, "select slow", 300);
+        logger.stop();
+
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("sql=\"select slow\""));
+    }
+
+    @Test
+    public void 샘플링_1_이면_모두_남긴다() {
+        SqlAuditLogger logger = new SqlAuditLogger(properties(1.0, 100), lines::add);
+
+        execute(logger, "select 1", 10);
+        execute(logger, "select 2", 10);
+        logger.stop();
+
+        assertEquals(2, lines.size());
+    }
+
+    @Test
+    public void 큐가_가득_차면_버리고_개수만_센다() {
+        SqlAuditProperties properties = properties(1.0, 100);
+        properties.setQueueCapacity(2);
+        SqlAuditLogger logger = new SqlAuditLogger(properties, lines::add);
+
+        for (int i = 0; i < 5; i++) {
+            execute(logger, "select " + i, 10);
+        }
+
+        assertEquals(3, logger.droppedCount());
+        logger.stop();
+        assertEquals("큐에 들어간 것만 쓴다.", 2, lines.size());
+    }
+
+    @Test
+    public void 종료할_때_남은_항목을_모두_쓴다() {
+        SqlAuditProperties properties = properties(1.0, 100);
+        properties.setFlushInterval(Duration.ofHours(1)); // 주기적으로는 쓰지 않는다.
+        SqlAuditLogger logger = new SqlAuditLogger(properties, lines::add);
+        logger.start();
+        assertTrue(logger.isRunning());
+
+        for (int i = 0; i < 3; i++) {
+            execute(logger, "select " + i, 10);
+        }
+        logger.stop();
+
+        assertFalse(logger.isRunning());
+        assertEquals(3, lines.size());
+    }
+
+    private static SqlAuditProperties properties(double sampleRate, long slowThresholdMillis) {
+        SqlAuditProperties properties = new SqlAuditProperties();
+        properties.setSampleRate(sampleRate);
+        properties.setSlowThreshold(Duration.ofMillis(slowThresholdMillis));
+        return properties;
+    }
+
+    // beforeQuery 없이 호출하면 ExecutionInfo 의 실행 시간(ms)을 사용한다.
+    private static void execute(SqlAuditLogger logger, String sql, long elapsedMillis) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMillis);
+        executionInfo.setSuccess(true);
+        logger.afterQuery(executionInfo, Collections.singletonList(new QueryInfo(sql)));
+    }
+}
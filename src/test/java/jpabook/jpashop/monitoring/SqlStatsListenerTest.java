@@ -0,0 +1,81 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class SqlStatsListenerTest {
+
+    @Test
+    public void 리터럴과_in_목록을_정규화() {
+        assertEquals("select * from orders o where o.name = ? and o.price > ? and o.order_id in (?)",
+                SqlShape.normalize("select *  from orders o\n where o.name = 'it''s' and o.price > -10.5" +
+                        " and o.order_id in (1, 2, 3)"));
+        assertEquals("바인딩 파라미터 in 목록도 개수와 상관없이 하나로 합친다.",
+                SqlShape.normalize("select * from item where item_id in (?)"),
+                SqlShape.normalize("select * from item where item_id IN ( ?, ?,? )"));
+        assertEquals("컬럼/별칭 이름의 숫자는 리터럴이 아니다.",
+                "select t1.col2 from t1 where t1.col2 = ?",
+                SqlShape.normalize("select t1.col2 from t1 where t1.col2 = 7"));
+    }
+
+    @Test
+    public void 형태_개수를_넘으면_other_로_모은다() {
+        SqlStatsProperties properties = properties();
+        properties.setMaxShapes(2);
+        SqlStatsListener listener = new SqlStatsListener(new SimpleMeterRegistry(), properties);
+
+        execute(listener, "select * from a where id = 1", 1);
+        execute(listener, "select * from b where id = 2", 1);
+        execute(listener, "select * from c where id = 3", 1);
+        execute(listener, "select * from d where id = 4", 1);
+        execute(listener, "select * from a where id = 5", 1); // 기존 형태는 그대로 기록
+
+        Map<String, SqlStatsListener.ShapeStats> shapes = listener.getShapes().stream()
+                .collect(Collectors.toMap(SqlStatsListener.ShapeStats::getShapeId, Function.identity()));
+        assertEquals(3, shapes.size());
+        assertEquals("넘친 형태는 other 하나에 기록된다.", 2, shapes.get("other").getTimer().count());
+        assertEquals(2, shapes.get(SqlShape.id("select * from a where id = ?")).getTimer().count());
+    }
+
+    @Test
+    public void 느린_쿼리_버퍼는_오래된_것부터_덮어쓴다() {
+        SqlStatsProperties properties = properties();
+        properties.setSlowQueryBufferSize(3);
+        SqlStatsListener listener = new SqlStatsListener(new SimpleMeterRegistry(), properties);
+
+        execute(listener, "select 1", 50); // 임계값 미만
+        for (int i = 1; i <= 5; i++) {
+            execute(listener, "select " + i, 100 + i);
+        }
+
+        List<SlowQuery> slowQueries = listener.getSlowQueries();
+        assertEquals(3, slowQueries.size());
+        assertEquals("느린 순서로 마지막 3개만 남는다.", 105.0, slowQueries.get(0).getElapsedMs(), 0.001);
+        assertEquals(104.0, slowQueries.get(1).getElapsedMs(), 0.001);
+        assertEquals(103.0, slowQueries.get(2).getElapsedMs(), 0.001);
+    }
+
+    private static SqlStatsProperties properties() {
+        SqlStatsProperties properties = new SqlStatsProperties();
+        properties.setSlowQueryThreshold(Duration.ofMillis(100));
+        return properties;
+    }
+
+    // beforeQuery 없이 호출하면 ExecutionInfo 의 실행 시간(ms)을 사용한다.
+    private static void execute(SqlStatsListener listener, String sql, long elapsedMillis) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMillis);
+        listener.afterQuery(executionInfo, Collections.singletonList(new QueryInfo(sql)));
+    }
+}
@@ -0,0 +1,115 @@
+package jpabook.jpashop.repository.order;
+
+import jpabook.jpashop.event.DataVersion;
+import jpabook.jpashop.event.OrderChangedEvent;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 캐시를 채우는 조회와 변경 커밋이 겹치는 경우 (커밋되어야 하기 때문에 @Transactional 을 붙이지 않는다)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class OrderQueryCacheTest {
+
+    @Autowired DataVersion dataVersion;
+    @Autowired CacheManager cacheManager;
+    @Autowired ApplicationEventPublisher eventPublisher;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired OrderSimpleQueryRepository orderSimpleQueryRepository;
+    @Autowired SlowQuery slowQuery;
+
+    Cache cache;
+
+    @Before
+    public void setUp() {
+        cache = cacheManager.getCache(OrderQueryCache.ORDER_SIMPLE_QUERY_DTOS);
+        cache.clear();
+    }
+
+    @Test
+    public void 조회_결과는_데이터_버전_키로_캐시된다() {
+        orderSimpleQueryRepository.findOrderDtos();
+
+        assertNotNull(cache.get(dataVersion.current()));
+    }
+
+    @Test
+    public void 커밋_전에_읽은_결과는_새_버전에서_보이지_않는다() throws Exception {
+        //given: 커밋 전 데이터를 읽고 있는 조회
+        slowQuery.willReturn("old");
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(slowQuery::load);
+        assertTrue(slowQuery.awaitStarted());
+
+        //when: 그 사이 변경이 커밋되어 캐시를 비우고 버전을 올린 뒤, 먼저 시작한 조회가 캐시에 넣는다.
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> eventPublisher.publishEvent(new OrderChangedEvent(0L)));
+        slowQuery.release();
+        assertEquals("old", first.get(5, TimeUnit.SECONDS));
+
+        //then: 새 버전(새 ETag)으로 조회하면 이전 결과가 아니라 다시 읽은 결과
+        slowQuery.willReturn("new");
+        assertEquals("new", slowQuery.load());
+    }
+
+    @TestConfiguration
+    static class SlowQueryConfig {
+        @Bean
+        SlowQuery slowQuery() {
+            return new SlowQuery();
+        }
+    }
+
+    /**
+     * 주문 조회 캐시와 같은 키로 캐시되고, 풀어줄 때까지 끝나지 않는 조회
+     * 캐시 프록시를 거치기 때문에 필드가 아니라 메서드로 다룬다.
+     */
+    static class SlowQuery {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile String result;
+
+        public void willReturn(String result) {
+            this.result = result;
+        }
+
+        public boolean awaitStarted() throws InterruptedException {
+            return started.await(5, TimeUnit.SECONDS);
+        }
+
+        public void release() {
+            release.countDown();
+        }
+
+        @Cacheable(cacheNames = OrderQueryCache.ORDER_SIMPLE_QUERY_DTOS, key = OrderQueryCache.VERSION_KEY)
+        public String load() {
+            String current = result;
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return current;
+        }
+    }
+}
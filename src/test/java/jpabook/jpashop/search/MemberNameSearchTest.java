@@ -0,0 +1,101 @@
+package jpabook.jpashop.search;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.ItemService;
+import jpabook.jpashop.service.MemberService;
+import jpabook.jpashop.service.OrderService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 회원 이름 인덱스는 커밋된 뒤에 반영된다. (커밋/롤백을 확인해야 하기 때문에 @Transactional 을 붙이지 않는다)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class MemberNameSearchTest {
+
+    @Autowired MemberNameSearch memberNameSearch;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired OrderService orderService;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 주문검색_회원이름_부분일치() throws Exception {
+        //given
+        long suffix = System.nanoTime();
+        Long memberId = createMember("Kim Search" + suffix); // 가입이 커밋되면 회원 이름 인덱스에 반영
+        Long orderId = orderService.order(memberId, createBook("시골 JPA"), 1);
+
+        //when
+        OrderSearch orderSearch = new OrderSearch();
+        orderSearch.setMemberName("m sEA" + suffix);
+        List<Order> orders = orderService.findOrders(orderSearch);
+
+        //then
+        assertEquals("이름 일부로 대소문자 구분 없이 검색된다.", 1, orders.size());
+        assertEquals(orderId, orders.get(0).getId());
+
+        //when
+        memberService.update(memberId, "Lee" + suffix);
+
+        //then
+        assertTrue("바뀐 이름으로는 더 이상 검색되지 않는다.", orderService.findOrders(orderSearch).isEmpty());
+        orderSearch.setMemberName("lee" + suffix);
+        assertEquals("새 이름으로 검색된다.", 1, orderService.findOrders(orderSearch).size());
+    }
+
+    @Test
+    public void 이름_변경이_롤백되면_커밋된_이름이_남는다() {
+        //given
+        long suffix = System.nanoTime();
+        Long memberId = createMember("alice" + suffix);
+
+        //when: bob 으로 바꾸고 롤백
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberService.update(memberId, "bob" + suffix);
+            assertFalse("커밋 전에는 인덱스에 없다.", memberNameSearch.findMemberIds("bob" + suffix).contains(memberId));
+            status.setRollbackOnly();
+        });
+
+        //then
+        assertTrue(memberNameSearch.findMemberIds("alice" + suffix).contains(memberId));
+        assertFalse(memberNameSearch.findMemberIds("bob" + suffix).contains(memberId));
+
+        //when: 이어서 carol 로 바꾸고 커밋
+        memberService.update(memberId, "carol" + suffix);
+
+        //then
+        assertFalse(memberNameSearch.findMemberIds("alice" + suffix).contains(memberId));
+        assertTrue(memberNameSearch.findMemberIds("carol" + suffix).contains(memberId));
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Long createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
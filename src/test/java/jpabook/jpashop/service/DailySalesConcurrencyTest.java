@@ -0,0 +1,104 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DailySales;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.sales.DailySalesDto;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 일별 매출 집계 row lock (트랜잭션이 커밋되지 않은 상태를 만들어야 하기 때문에 @Transactional 을 붙이지 않는다)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class DailySalesConcurrencyTest {
+
+    @Autowired OrderService orderService;
+    @Autowired SalesService salesService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void 다른_상품의_주문은_커밋을_기다리지_않는다() throws Exception {
+        //given
+        LocalDate today = LocalDate.now();
+        Long memberA = createMember("매출회원A" + System.nanoTime());
+        Long memberB = createMember("매출회원B" + System.nanoTime());
+        Long itemA = createBook("매출 JPA A");
+        Long itemB = createBookInOtherSlot("매출 JPA B", itemA);
+        long before = revenueOf(today);
+
+        //when: 주문 A 가 매출 집계까지 반영하고 커밋하지 않은 상태에서
+        CountDownLatch ordered = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> orderA = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    orderService.order(memberA, itemA, 1);
+                    ordered.countDown();
+                    try {
+                        commit.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        try {
+            assertTrue(ordered.await(10, TimeUnit.SECONDS));
+
+            //then: 다른 상품의 주문은 A 의 커밋을 기다리지 않고 끝난다.
+            Long orderB = CompletableFuture.supplyAsync(() -> orderService.order(memberB, itemB, 1))
+                    .get(5, TimeUnit.SECONDS);
+            assertNotNull(orderB);
+        } finally {
+            commit.countDown();
+        }
+        orderA.get(10, TimeUnit.SECONDS);
+
+        assertEquals("두 주문 모두 매출에 반영된다.", before + 20000, revenueOf(today));
+    }
+
+    private long revenueOf(LocalDate date) {
+        List<DailySalesDto> sales = salesService.findDailySales(date, date.plusDays(1));
+        return sales.isEmpty() ? 0 : sales.get(0).getRevenue();
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    // 같은 slot 이면 상품 id 가 달라도 같은 row 에 더하기 때문에 다른 slot 의 상품을 만든다.
+    private Long createBookInOtherSlot(String name, Long otherItemId) {
+        Long itemId = createBook(name);
+        while (DailySales.slotOf(itemId) == DailySales.slotOf(otherItemId)) {
+            itemId = createBook(name);
+        }
+        return itemId;
+    }
+
+    private Long createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
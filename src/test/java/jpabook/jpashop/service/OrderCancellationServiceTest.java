@@ -0,0 +1,155 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 일괄 취소 (chunk 마다 커밋되어야 하기 때문에 @Transactional 을 붙이지 않는다)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class OrderCancellationServiceTest {
+
+    @Autowired OrderCancellationService orderCancellationService;
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderProperties orderProperties;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+
+    private int originalChunkSize;
+    private int originalMaxBulkCancel;
+
+    @Before
+    public void saveProperties() {
+        originalChunkSize = orderProperties.getCancelChunkSize();
+        originalMaxBulkCancel = orderProperties.getMaxBulkCancel();
+    }
+
+    @After
+    public void restoreProperties() {
+        orderProperties.setCancelChunkSize(originalChunkSize);
+        orderProperties.setMaxBulkCancel(originalMaxBulkCancel);
+    }
+
+    @Test
+    public void 검색조건_일괄취소_chunk_단위() {
+        //given
+        orderProperties.setCancelChunkSize(2);
+        String name = "일괄취소회원" + System.nanoTime();
+        Long memberId = createMember(name);
+        Long otherMemberId = createMember(name + "-2"); // 이름이 포함되지만 다른 회원
+        Long itemId = createBook("일괄취소 JPA", 10);
+
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orderIds.add(orderService.order(memberId, itemId, 1));
+        }
+        Long otherOrderId = orderService.order(otherMemberId, itemId, 1);
+        orderService.cancelOrder(orderIds.get(0)); // 이미 취소된 주문
+
+        OrderSearch search = new OrderSearch();
+        search.setMemberName(name);
+
+        //when
+        BulkCancelResult result = orderCancellationService.cancel(search);
+
+        //then
+        assertEquals("chunk 를 넘어 검색된 주문을 모두 읽어야 한다.", 5, result.getRequested());
+        assertEquals("이미 취소된 주문은 제외된다.", 4, result.getCancelled());
+        for (Long orderId : orderIds) {
+            assertEquals(OrderStatus.CANCEL, orderRepository.findOne(orderId).getStatus());
+        }
+        assertEquals("검색 조건 밖의 주문은 그대로다.", OrderStatus.ORDER, orderRepository.findOne(otherOrderId).getStatus());
+        assertEquals("취소된 수량만큼 재고가 돌아와야 한다.", 9, itemService.findOne(itemId).getStockQuantity());
+    }
+
+    @Test
+    public void 주문상태_조건으로_다시_취소하면_남은_주문이_없다() {
+        //given
+        orderProperties.setCancelChunkSize(2);
+        String name = "재취소회원" + System.nanoTime();
+        Long memberId = createMember(name);
+        Long itemId = createBook("재취소 JPA", 10);
+        for (int i = 0; i < 3; i++) {
+            orderService.order(memberId, itemId, 1);
+        }
+
+        OrderSearch search = new OrderSearch();
+        search.setMemberName(name);
+        search.setOrderStatus(OrderStatus.ORDER);
+
+        //when
+        BulkCancelResult first = orderCancellationService.cancel(search);
+        BulkCancelResult second = orderCancellationService.cancel(search);
+
+        //then
+        assertEquals(3, first.getCancelled());
+        assertEquals(0, second.getRequested());
+    }
+
+    @Test
+    public void 최대_개수를_넘으면_하나도_취소하지_않는다() {
+        //given
+        orderProperties.setMaxBulkCancel(2);
+        String name = "초과취소회원" + System.nanoTime();
+        Long memberId = createMember(name);
+        Long itemId = createBook("초과취소 JPA", 10);
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            orderIds.add(orderService.order(memberId, itemId, 1));
+        }
+
+        OrderSearch search = new OrderSearch();
+        search.setMemberName(name);
+
+        //when
+        try {
+            orderCancellationService.cancel(search);
+            fail("최대 개수를 넘으면 예외가 발생해야 한다.");
+        } catch (IllegalArgumentException e) {
+            //then
+        }
+        try {
+            orderCancellationService.cancel(orderIds);
+            fail("최대 개수를 넘으면 예외가 발생해야 한다.");
+        } catch (IllegalArgumentException e) {
+            //then
+        }
+        for (Long orderId : orderIds) {
+            assertEquals(OrderStatus.ORDER, orderRepository.findOne(orderId).getStatus());
+        }
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Long createBook(String name, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+}
@@ -0,0 +1,255 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class OrderIntakeQueueTest {
+
+    private final StubOrderService orderService = new StubOrderService();
+    private OrderIntakeQueue queue;
+
+    @After
+    public void stop() {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    public void 최대_배치_크기만큼_모아서_저장한다() throws Exception {
+        queue = start(2, Duration.ofMillis(500), Duration.ofSeconds(5));
+
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (long memberId = 1; memberId <= 5; memberId++) {
+            futures.add(queue.submit(request(memberId)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(Long.valueOf(i + 1), get(futures.get(i)));
+        }
+        assertEquals(Arrays.asList(2, 2, 1), orderService.batchSizes());
+    }
+
+    @Test
+    public void linger_동안_들어온_주문은_한_배치로_저장한다() throws Exception {
+        queue = start(100, Duration.ofMillis(300), Duration.ofSeconds(5));
+
+        CompletableFuture<Long> first = queue.submit(request(1L));
+        Thread.sleep(50);
+        CompletableFuture<Long> second = queue.submit(request(2L));
+
+        assertEquals(Long.valueOf(1L), get(first));
+        assertEquals(Long.valueOf(2L), get(second));
+        assertEquals(Arrays.asList(2), orderService.batchSizes());
+    }
+
+    @Test
+    public void 재고가_부족한_주문만_실패한다() throws Exception {
+        orderService.handler = requests -> requests.stream()
+                .map(request -> request.getMemberId() == 2L ? null : request.getMemberId())
+                .collect(Collectors.toList());
+        queue = start(100, Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        CompletableFuture<Long> ok = queue.submit(request(1L));
+        CompletableFuture<Long> notEnough = queue.submit(request(2L));
+
+        assertEquals(Long.valueOf(1L), get(ok));
+        assertTrue(causeOf(notEnough) instanceof NotEnoughStockException);
+    }
+
+    @Test
+    public void 배치가_실패하면_하나씩_다시_저장한다() throws Exception {
+        orderService.handler = requests -> {
+            if (requests.stream().anyMatch(request -> request.getMemberId() < 0)) {
+                throw new IllegalArgumentException("없는 회원");
+            }
+            return memberIds(requests);
+        };
+        queue = start(100, Duration.ofMillis(100), Duration.ofSeconds(5));
+
+        CompletableFuture<Long> first = queue.submit(request(1L));
+        CompletableFuture<Long> invalid = queue.submit(request(-1L));
+        CompletableFuture<Long> second = queue.submit(request(2L));
+
+        assertEquals(Long.valueOf(1L), get(first));
+        assertEquals(Long.valueOf(2L), get(second));
+        assertTrue(causeOf(invalid) instanceof IllegalArgumentException);
+        assertEquals(Arrays.asList(3, 1, 1, 1), orderService.batchSizes());
+    }
+
+    @Test
+    public void 시간_초과된_주문은_취소되고_저장하지_않는다() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        orderService.handler = requests -> {
+            try {
+                release.await(5, TimeUnit.SECONDS); // 첫 배치를 붙잡아 둔다.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return memberIds(requests);
+        };
+        queue = start(100, Duration.ZERO, Duration.ofMillis(100));
+
+        assertTimeout(1L); // 저장 중에 시간 초과
+        assertTimeout(2L); // 대기열에서 시간 초과
+        release.countDown();
+        queue.stop();
+
+        // 이미 저장 중이던 주문만 저장되고, 대기열에서 취소된 주문은 버려진다.
+        assertEquals(1, orderService.calls.size());
+        assertEquals(Arrays.asList(1L), memberIds(orderService.calls.get(0)));
+    }
+
+    @Test
+    public void 시간_초과_후_같은_주문_키로_다시_요청하면_새로_주문하지_않는다() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        orderService.handler = requests -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return memberIds(requests);
+        };
+        queue = start(100, Duration.ZERO, Duration.ofMillis(100));
+
+        try {
+            queue.order("key-1", 1L, 1L, 1);
+            fail("시간 초과 예외가 발생해야 한다.");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().startsWith("주문 처리 시간이 초과되었습니다."));
+        }
+        release.countDown();
+
+        queue.stop(); // writer 가 첫 배치를 마칠 때까지 기다린다.
+
+        // 다시 요청하면 처음 주문의 결과를 받는다.
+        assertEquals(Long.valueOf(1L), queue.order("key-1", 1L, 1L, 1));
+        assertEquals("배치에 들어간 주문은 한 번만 저장된다.", 1, orderService.calls.size());
+    }
+
+    @Test
+    public void 실패한_주문_키로_다시_요청하면_다시_주문한다() throws Exception {
+        orderService.handler = requests -> requests.stream()
+                .map(request -> orderService.calls.size() == 1 ? null : request.getMemberId())
+                .collect(Collectors.toList());
+        queue = start(100, Duration.ZERO, Duration.ofSeconds(5));
+
+        try {
+            queue.order("key-2", 1L, 1L, 1);
+            fail("재고 부족 예외가 발생해야 한다.");
+        } catch (NotEnoughStockException e) {
+            //then
+        }
+
+        assertEquals(Long.valueOf(1L), queue.order("key-2", 1L, 1L, 1));
+        assertEquals(2, orderService.calls.size());
+    }
+
+    @Test
+    public void 종료된_뒤에는_종료_메시지로_거절한다() {
+        queue = start(100, Duration.ZERO, Duration.ofSeconds(5));
+        queue.stop();
+
+        try {
+            queue.submit(request(1L));
+            fail("종료된 대기열은 주문을 받지 않는다.");
+        } catch (IllegalStateException e) {
+            assertEquals("주문 접수가 종료되었습니다.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void 배치_처리_중_Error_가_나도_writer_는_계속_동작한다() throws Exception {
+        orderService.handler = requests -> {
+            if (orderService.calls.size() == 1) {
+                throw new NoClassDefFoundError("boom");
+            }
+            return memberIds(requests);
+        };
+        queue = start(100, Duration.ZERO, Duration.ofSeconds(5));
+
+        CompletableFuture<Long> failed = queue.submit(request(1L));
+        assertTrue(causeOf(failed) instanceof NoClassDefFoundError);
+
+        assertEquals(Long.valueOf(2L), get(queue.submit(request(2L))));
+    }
+
+    private OrderIntakeQueue start(int maxBatchSize, Duration maxLinger, Duration timeout) {
+        OrderProperties properties = new OrderProperties();
+        properties.getIntake().setMaxBatchSize(maxBatchSize);
+        properties.getIntake().setMaxLinger(maxLinger);
+        properties.getIntake().setTimeout(timeout);
+        OrderIntakeQueue queue = new OrderIntakeQueue(orderService, properties);
+        queue.start();
+        return queue;
+    }
+
+    private void assertTimeout(Long memberId) {
+        try {
+            queue.order(memberId, 1L, 1);
+            fail("시간 초과 예외가 발생해야 한다.");
+        } catch (IllegalStateException e) {
+            assertEquals("주문 처리 시간이 초과되었습니다.", e.getMessage());
+        }
+    }
+
+    private static OrderRequest request(Long memberId) {
+        return new OrderRequest(memberId, 1L, 1);
+    }
+
+    private static List<Long> memberIds(List<OrderRequest> requests) {
+        return requests.stream().map(OrderRequest::getMemberId).collect(Collectors.toList());
+    }
+
+    private static Long get(CompletableFuture<Long> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    private static Throwable causeOf(CompletableFuture<Long> future) throws Exception {
+        try {
+            get(future);
+            throw new AssertionError("예외가 발생해야 한다.");
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    /**
+     * 받은 배치를 기록하고 handler 의 결과를 돌려준다. (기본: 주문 id = 회원 id)
+     */
+    private static class StubOrderService extends OrderService {
+
+        private final List<List<OrderRequest>> calls = new CopyOnWriteArrayList<>();
+        private volatile Function<List<OrderRequest>, List<Long>> handler = OrderIntakeQueueTest::memberIds;
+
+        StubOrderService() {
+            super(null, null, null, null, null, null, null);
+        }
+
+        @Override
+        public List<Long> orderAll(List<OrderRequest> requests) {
+            calls.add(new ArrayList<>(requests));
+            return handler.apply(requests);
+        }
+
+        List<Integer> batchSizes() {
+            return calls.stream().map(List::size).collect(Collectors.toList());
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.DeliveryStatus;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.repository.sales.DailySalesDto;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +20,9 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -27,6 +34,9 @@ public class OrderServiceTest {
     @Autowired EntityManager em;
     @Autowired OrderService orderService;
     @Autowired OrderRepository orderRepository;
+    @Autowired OrderSummaryRepository orderSummaryRepository;
+    @Autowired SalesService salesService;
+    @Autowired MemberService memberService;
 
     @Test
     public void 상품주문() throws Exception {
@@ -84,6 +94,108 @@ public class OrderServiceTest {
         assertEquals("주문이 취소된 상품은 그만큼 재고가 증가해야 한다.", 10, item.getStockQuantity());
     }
 
+    @Test
+    public void 주문일괄취소() throws Exception {
+        //given
+        Member member = createMember();
+        Book item = createBook("시골 JPA", 10000, 10);
+        Long orderId1 = orderService.order(member.getId(), item.getId(), 2);
+        Long orderId2 = orderService.order(member.getId(), item.getId(), 3);
+        Long completedId = orderService.order(member.getId(), item.getId(), 1);
+        orderRepository.findOne(completedId).getDelivery().setStatus(DeliveryStatus.COMP);
+        em.flush();
+        em.clear(); // 일괄 취소는 벌크 update 로 처리된다.
+
+        //when
+        int cancelled = orderService.cancelOrders(Arrays.asList(orderId1, orderId2, completedId));
+        em.clear();
+
+        //then
+        assertEquals("배송완료된 주문은 취소되지 않는다.", 2, cancelled);
+        assertEquals(OrderStatus.CANCEL, orderRepository.findOne(orderId1).getStatus());
+        assertEquals(OrderStatus.CANCEL, orderSummaryRepository.findOne(orderId2).getStatus());
+        assertEquals(OrderStatus.ORDER, orderRepository.findOne(completedId).getStatus());
+        assertEquals("취소된 수량만큼 재고가 한 번에 복구된다.", 9, em.find(Book.class, item.getId()).getStockQuantity());
+    }
+
+    @Test
+    public void 주문요약_갱신() throws Exception {
+        //given
+        Member member = createMember();
+        Book item = createBook("시골 JPA", 10000, 10);
+
+        //when
+        Long orderId = orderService.order(member.getId(), item.getId(), 3);
+
+        //then
+        OrderSummary summary = orderSummaryRepository.findOne(orderId);
+        assertEquals("주문시 요약이 함께 저장된다.", OrderStatus.ORDER, summary.getStatus());
+        assertEquals("회원1", summary.getMemberName());
+        assertEquals(30000, summary.getTotalPrice());
+
+        //when
+        orderService.cancelOrder(orderId);
+        em.clear(); // 벌크 update 는 영속성 컨텍스트를 거치지 않는다.
+
+        //then
+        assertEquals("주문 취소시 요약 상태도 CANCEL 이다.", OrderStatus.CANCEL, orderSummaryRepository.findOne(orderId).getStatus());
+
+        //when
+        memberService.update(member.getId(), "회원1-변경");
+        em.flush();
+        em.clear();
+
+        //then
+        assertEquals("회원 이름 변경시 요약의 회원 이름도 바뀐다.", "회원1-변경", orderSummaryRepository.findOne(orderId).getMemberName());
+    }
+
+    @Test
+    public void 일별매출_집계() throws Exception {
+        //given
+        Member member = createMember();
+        Book item = createBook("시골 JPA", 10000, 10);
+        LocalDate today = LocalDate.now();
+        long before = revenueOf(today);
+
+        //when
+        Long orderId = orderService.order(member.getId(), item.getId(), 2);
+
+        //then
+        assertEquals("주문 금액만큼 매출이 증가한다.", before + 20000, revenueOf(today));
+
+        //when
+        orderService.cancelOrder(orderId);
+
+        //then
+        assertEquals("취소된 주문은 매출에서 빠진다.", before, revenueOf(today));
+    }
+
+    @Test
+    public void 배치주문_재고부족_요청만_실패() throws Exception {
+        //given
+        Member member = createMember();
+        Book item = createBook("시골 JPA", 10000, 3);
+
+        //when
+        List<Long> orderIds = orderService.orderAll(Arrays.asList(
+                new OrderRequest(member.getId(), item.getId(), 2),
+                new OrderRequest(member.getId(), item.getId(), 2), // 앞 주문 이후 재고 1
+                new OrderRequest(member.getId(), item.getId(), 1)));
+
+        //then
+        assertNotNull(orderIds.get(0));
+        assertNull("배치 안에서 먼저 차감된 재고 기준으로 재고 부족", orderIds.get(1));
+        assertNotNull(orderIds.get(2));
+        assertEquals("저장된 주문 수량만큼 재고가 줄어야 한다.", 0, item.getStockQuantity());
+    }
+
+    private long revenueOf(LocalDate date) {
+        em.flush();
+        em.clear(); // 벌크 update 는 영속성 컨텍스트를 거치지 않는다.
+        List<DailySalesDto> sales = salesService.findDailySales(date, date.plusDays(1));
+        return sales.isEmpty() ? 0 : sales.get(0).getRevenue();
+    }
+
     private Book createBook(String name, int price, int stockQuantity) {
         Book book = new Book();
         book.setName(name);
@@ -0,0 +1,137 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.service.OrderProperties.StockMode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 한 상품에 주문이 몰리는 상황 (트랜잭션마다 커밋되어야 하기 때문에 @Transactional 을 붙이지 않는다)
+ * 여기서는 정합성만 확인한다. 초당 주문 수는 HotItemOrderBenchmark(src/jmh) 로 측정한다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class StockConcurrencyTest {
+
+    private static final int STOCK = 50;
+    private static final int ORDERS = 200;
+    private static final int THREADS = 8;
+
+    @Autowired OrderPlacementService orderPlacementService;
+    @Autowired OrderProperties orderProperties;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+
+    private StockMode originalStockMode;
+
+    // OrderProperties 는 테스트 컨텍스트가 재사용되는 싱글톤이라 다른 테스트 클래스에 영향을 주지 않도록 되돌린다.
+    @Before
+    public void saveStockMode() {
+        originalStockMode = orderProperties.getStockMode();
+    }
+
+    @After
+    public void restoreStockMode() {
+        orderProperties.setStockMode(originalStockMode);
+    }
+
+    @Test
+    public void 조건부_update_동시주문() throws Exception {
+        //given
+        orderProperties.setStockMode(StockMode.CONDITIONAL_UPDATE);
+        Long memberId = createMember("재고회원1");
+        Long itemId = createBook("인기 JPA", STOCK);
+
+        //when
+        Result result = orderConcurrently(memberId, itemId);
+
+        //then
+        assertEquals("재고만큼만 주문이 성공해야 한다.", STOCK, result.success.get());
+        assertEquals("나머지는 재고 부족이어야 한다.", ORDERS - STOCK, result.notEnoughStock.get());
+        assertEquals("재고는 0 이어야 한다.", 0, itemService.findOne(itemId).getStockQuantity());
+    }
+
+    @Test
+    public void 낙관적_락_재시도_동시주문() throws Exception {
+        //given
+        orderProperties.setStockMode(StockMode.OPTIMISTIC);
+        Long memberId = createMember("재고회원2");
+        Long itemId = createBook("인기 JPA2", STOCK);
+
+        //when
+        Result result = orderConcurrently(memberId, itemId);
+
+        //then
+        int stock = itemService.findOne(itemId).getStockQuantity();
+        assertTrue("재고는 음수가 될 수 없다.", stock >= 0);
+        assertEquals("성공한 주문 수만큼만 재고가 줄어야 한다.", STOCK - result.success.get(), stock);
+        assertEquals("모든 주문은 성공, 재고 부족, 재시도 초과 중 하나다.",
+                ORDERS, result.success.get() + result.notEnoughStock.get() + result.conflict.get());
+    }
+
+    private Result orderConcurrently(Long memberId, Long itemId) throws InterruptedException {
+        Result result = new Result();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch latch = new CountDownLatch(ORDERS);
+
+        for (int i = 0; i < ORDERS; i++) {
+            executor.submit(() -> {
+                try {
+                    orderPlacementService.order(memberId, itemId, 1);
+                    result.success.incrementAndGet();
+                } catch (NotEnoughStockException e) {
+                    result.notEnoughStock.incrementAndGet();
+                } catch (OptimisticLockingFailureException e) {
+                    result.conflict.incrementAndGet();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        try {
+            assertTrue("모든 주문이 1분 안에 끝나야 한다.", latch.await(1, TimeUnit.MINUTES));
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private Long createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    private Long createBook(String name, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(stockQuantity);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+
+    private static class Result {
+        final AtomicInteger success = new AtomicInteger();
+        final AtomicInteger notEnoughStock = new AtomicInteger();
+        final AtomicInteger conflict = new AtomicInteger();
+    }
+}